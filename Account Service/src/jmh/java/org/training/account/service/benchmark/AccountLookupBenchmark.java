@@ -0,0 +1,97 @@
+package org.training.account.service.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the account lookups by account number and by user on a large account table, with only the
+ * baseline schema compared with the schema including the lookup indexes. The schema is created by the
+ * service migrations on H2 in MySQL mode. Ten million rows need a few gigabytes of heap; pass
+ * {@code -Djmh.args="AccountLookupBenchmark -p rows=1000000"} for a quicker run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class AccountLookupBenchmark {
+
+    private static final String ACCOUNT_NUMBER_PREFIX = "0600";
+
+    @Param({"10000000"})
+    private int rows;
+
+    @Param({"BASELINE", "LOOKUP_INDEXES"})
+    private String schema;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:lookup_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+
+        migrate("1.1");
+        jdbcTemplate.update("INSERT INTO account (account_number, account_status, account_type, available_balance, opening_date, user_id, version) " +
+                "SELECT CONCAT(?, LPAD(x, 9, '0')), 'ACTIVE', 'SAVINGS_ACCOUNT', 0, CURRENT_DATE, x, 0 FROM SYSTEM_RANGE(1, ?)",
+                ACCOUNT_NUMBER_PREFIX, rows);
+        if (schema.equals("LOOKUP_INDEXES")) {
+            // indexes the loaded table, as the migration does on an existing database
+            migrate("latest");
+        }
+    }
+
+    private void migrate(String target) {
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> findAccountByAccountNumber() {
+
+        String accountNumber = ACCOUNT_NUMBER_PREFIX + String.format("%09d", ThreadLocalRandom.current().nextInt(1, rows + 1));
+        return jdbcTemplate.queryForList("SELECT * FROM account WHERE account_number = ?", accountNumber);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> findAccountByUserIdAndAccountType() {
+
+        return jdbcTemplate.queryForList("SELECT * FROM account WHERE user_id = ? AND account_type = ?",
+                ThreadLocalRandom.current().nextLong(1, rows + 1), "SAVINGS_ACCOUNT");
+    }
+}
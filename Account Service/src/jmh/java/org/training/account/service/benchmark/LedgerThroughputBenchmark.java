@@ -0,0 +1,119 @@
+package org.training.account.service.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.ledger.LedgerEngine;
+import org.training.account.service.ledger.LedgerProperties;
+import org.training.account.service.model.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Deposits per second into a single hot account, with a conditional row update per deposit
+ * compared with the ledger engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class LedgerThroughputBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "0600140000001";
+
+    private static final Money ONE = Money.ofMajor(1);
+
+    @Param({"ROW_UPDATE", "LEDGER"})
+    private String balancePath;
+
+    private JdbcConnectionPool dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private LedgerEngine ledgerEngine;
+
+    private Path journalDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:ledger_benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000", "sa", "");
+        dataSource.setMaxConnections(32);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE account (account_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "account_number VARCHAR(255), account_status VARCHAR(255), available_balance DECIMAL(38, 2), version BIGINT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE ledger_checkpoint (partition_id INT PRIMARY KEY, last_sequence BIGINT)");
+        jdbcTemplate.update("INSERT INTO account (account_number, account_status, available_balance) VALUES (?, 'ACTIVE', 0)",
+                ACCOUNT_NUMBER);
+
+        if (balancePath.equals("LEDGER")) {
+            journalDirectory = Files.createTempDirectory("ledger");
+            LedgerProperties ledgerProperties = new LedgerProperties();
+            ledgerProperties.setEnabled(true);
+            ledgerProperties.setAccounts(Set.of(ACCOUNT_NUMBER));
+            ledgerProperties.setJournalDirectory(journalDirectory.toString());
+            ledgerEngine = new LedgerEngine(jdbcTemplate, transactionManager, ledgerProperties, new SimpleMeterRegistry());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+
+        if (ledgerEngine != null) {
+            ledgerEngine.shutdown();
+            try (Stream<Path> files = Files.walk(journalDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public BigDecimal deposit() {
+
+        if (ledgerEngine != null) {
+            return ledgerEngine.apply(ACCOUNT_NUMBER, ONE).toBigDecimal();
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE account SET available_balance = available_balance + ?, version = version + 1 " +
+                    "WHERE account_number = ? AND available_balance + ? >= 0", BigDecimal.ONE, ACCOUNT_NUMBER, BigDecimal.ONE);
+            return jdbcTemplate.queryForObject("SELECT available_balance FROM account WHERE account_number = ?",
+                    BigDecimal.class, ACCOUNT_NUMBER);
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package org.training.account.service.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.account.service.model.Money;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance updates per second of the in-memory balance loop, with {@link BigDecimal} amounts compared with
+ * {@link Money} minor units. Every update applies a signed amount and rejects it when the balance would go negative.
+ * Run with {@code -Djmh.args="MoneyArithmeticBenchmark -prof gc"} to also report the allocation rate per update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int UPDATES = 1024;
+
+    private BigDecimal[] decimalAmounts;
+
+    private Money[] moneyAmounts;
+
+    private BigDecimal decimalBalance;
+
+    private long minorBalance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        SplittableRandom random = new SplittableRandom(42);
+        decimalAmounts = new BigDecimal[UPDATES];
+        moneyAmounts = new Money[UPDATES];
+        for (int index = 0; index < UPDATES; index++) {
+            long minorUnits = random.nextLong(1, 1_000_000) * (random.nextInt(3) == 0 ? -1 : 1);
+            decimalAmounts[index] = BigDecimal.valueOf(minorUnits, Money.SCALE);
+            moneyAmounts[index] = Money.ofMinor(minorUnits);
+        }
+        decimalBalance = BigDecimal.valueOf(100_000_000, Money.SCALE);
+        minorBalance = 100_000_000;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public BigDecimal bigDecimal() {
+
+        BigDecimal balance = decimalBalance;
+        for (BigDecimal amount : decimalAmounts) {
+            BigDecimal updated = balance.add(amount);
+            if (updated.signum() >= 0) {
+                balance = updated;
+            }
+        }
+        return balance;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public long minorUnits() {
+
+        long balance = minorBalance;
+        for (Money amount : moneyAmounts) {
+            long updated = Math.addExact(balance, amount.getMinorUnits());
+            if (updated >= 0) {
+                balance = updated;
+            }
+        }
+        return balance;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public Money money() {
+
+        Money balance = Money.ofMinor(minorBalance);
+        for (Money amount : moneyAmounts) {
+            Money updated = balance.plus(amount);
+            if (!updated.isNegative()) {
+                balance = updated;
+            }
+        }
+        return balance;
+    }
+}
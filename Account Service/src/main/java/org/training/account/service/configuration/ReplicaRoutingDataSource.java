@@ -0,0 +1,86 @@
+package org.training.account.service.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends the connections of read-only transactions to the replica pool and every other connection to the primary.
+ * Once a thread used the primary, its read-only transactions stay on the primary until {@link #clearPin()},
+ * so a request never reads from a replica that may not have caught up with its own write yet.
+ * Reads whose result outlives the request, such as the ones filling the account cache, are sent to the primary
+ * with {@link #readFromPrimary(Supplier)}, so replica lag is never kept for as long as the entry is cached.
+ * It must be wrapped in a lazy connection proxy, so the route is picked once the transaction flags are known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final Counter primaryRoutes;
+
+    private final Counter replicaRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryRoutes = route(meterRegistry, PRIMARY);
+        this.replicaRoutes = route(meterRegistry, REPLICA);
+    }
+
+    /**
+     * Releases the thread from the primary, once the request that wrote has completed.
+     */
+    public static void clearPin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    /**
+     * Runs a read on the primary even inside a read-only transaction, provided the transaction did not open
+     * its connection yet. The thread is released from the primary afterwards unless it was pinned before.
+     *
+     * @param read the read to run
+     * @return the result of the read
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+
+        boolean pinned = PINNED_TO_PRIMARY.get() != null;
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (!pinned) {
+                PINNED_TO_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED_TO_PRIMARY.get() == null) {
+            replicaRoutes.increment();
+            return REPLICA;
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        primaryRoutes.increment();
+        return PRIMARY;
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target) {
+
+        return Counter.builder("account.datasource.routes")
+                .description("Connections handed out per target pool")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
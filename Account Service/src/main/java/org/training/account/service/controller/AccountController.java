@@ -5,9 +5,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountSearch;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.TransactionSearch;
+import org.training.account.service.model.dto.response.AccountPage;
+import org.training.account.service.model.dto.response.BalanceResponse;
 import org.training.account.service.model.dto.response.Response;
-import org.training.account.service.model.dto.external.TransactionResponse;
+import org.training.account.service.model.dto.external.TransactionPage;
 import org.training.account.service.service.AccountService;
 
 import java.util.List;
@@ -53,6 +58,28 @@ public class AccountController {
         return ResponseEntity.ok(accountService.readAccountByAccountNumber(accountNumber));
     }
 
+    /**
+     * Retrieves several accounts by their account numbers in one request.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found; unknown account numbers are left out.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<AccountDto>> readByAccountNumbers(@RequestBody List<String> accountNumbers) {
+        return ResponseEntity.ok(accountService.readAccountsByAccountNumbers(accountNumbers));
+    }
+
+    /**
+     * Lists accounts page by page, optionally filtered by status, type and opening date.
+     *
+     * @param accountSearch The filters, the cursor returned with the previous page and the page size.
+     * @return The page of accounts with the cursor of the next page.
+     */
+    @GetMapping("/list")
+    public ResponseEntity<AccountPage> listAccounts(AccountSearch accountSearch) {
+        return ResponseEntity.ok(accountService.listAccounts(accountSearch));
+    }
+
     /**
      * Updates an account with the given account number.
      *
@@ -77,14 +104,39 @@ public class AccountController {
     }
 
     /**
-     * Retrieve the list of transactions for a given account ID.
+     * Credits or debits the balance of the specified account with a signed amount.
+     *
+     * @param accountNumber The account number
+     * @param balanceUpdate The signed amount to apply
+     * @return The balance of the account after the update
+     */
+    @PatchMapping("/balance")
+    public ResponseEntity<BalanceResponse> updateBalance(@RequestParam String accountNumber, @RequestBody BalanceUpdate balanceUpdate) {
+        return ResponseEntity.ok(accountService.updateBalance(accountNumber, balanceUpdate));
+    }
+
+    /**
+     * Retrieves the balance of the specified account as a JSON number.
+     *
+     * @param accountNumber The account number
+     * @return The account balance
+     */
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<BalanceResponse> readBalance(@PathVariable String accountNumber) {
+        return ResponseEntity.ok(accountService.readBalance(accountNumber));
+    }
+
+    /**
+     * Retrieve a page of the transactions for a given account ID, newest first.
      *
-     * @param accountId The ID of the account.
-     * @return A ResponseEntity object containing a list of TransactionResponse objects.
+     * @param accountId         The ID of the account.
+     * @param transactionSearch The optional filters and the cursor of the page.
+     * @return A ResponseEntity object containing a page of TransactionResponse objects.
      */
     @GetMapping("/{accountId}/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactionsFromAccountId(@PathVariable String accountId) {
-        return ResponseEntity.ok(accountService.getTransactionsFromAccountId(accountId));
+    public ResponseEntity<TransactionPage> getTransactionsFromAccountId(@PathVariable String accountId,
+                                                                        TransactionSearch transactionSearch) {
+        return ResponseEntity.ok(accountService.getTransactionsFromAccountId(accountId, transactionSearch));
     }
 
     /**
@@ -0,0 +1,84 @@
+package org.training.account.service.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.training.account.service.model.dto.FundHoldRequest;
+import org.training.account.service.model.dto.response.FundHoldResponse;
+import org.training.account.service.service.FundHoldService;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/accounts/holds")
+public class FundHoldController {
+
+    private final FundHoldService fundHoldService;
+
+    /**
+     * Places a hold on an account.
+     *
+     * @param fundHoldRequest The account and the amount to hold
+     * @return The response entity with the placed hold and HTTP status code
+     */
+    @PostMapping
+    public ResponseEntity<FundHoldResponse> placeHold(@RequestBody FundHoldRequest fundHoldRequest) {
+        return new ResponseEntity<>(fundHoldService.placeHold(fundHoldRequest), HttpStatus.CREATED);
+    }
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdId The ID of the hold
+     * @return The hold
+     */
+    @GetMapping("/{holdId}")
+    public ResponseEntity<FundHoldResponse> readHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(fundHoldService.readHold(holdId));
+    }
+
+    /**
+     * Captures a hold.
+     *
+     * @param holdId The ID of the hold
+     * @return The captured hold
+     */
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<FundHoldResponse> captureHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(fundHoldService.captureHold(holdId));
+    }
+
+    /**
+     * Settles a captured hold into another account.
+     *
+     * @param holdId        The ID of the hold
+     * @param accountNumber The account to credit
+     * @return The settled hold
+     */
+    @PostMapping("/{holdId}/settle")
+    public ResponseEntity<FundHoldResponse> settleHold(@PathVariable Long holdId, @RequestParam String accountNumber) {
+        return ResponseEntity.ok(fundHoldService.settleHold(holdId, accountNumber));
+    }
+
+    /**
+     * Refunds a captured hold to its own account.
+     *
+     * @param holdId The ID of the hold
+     * @return The refunded hold
+     */
+    @PostMapping("/{holdId}/refund")
+    public ResponseEntity<FundHoldResponse> refundHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(fundHoldService.refundHold(holdId));
+    }
+
+    /**
+     * Releases a hold.
+     *
+     * @param holdId The ID of the hold
+     * @return The released hold
+     */
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<FundHoldResponse> releaseHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(fundHoldService.releaseHold(holdId));
+    }
+}
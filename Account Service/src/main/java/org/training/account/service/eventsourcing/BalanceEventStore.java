@@ -0,0 +1,136 @@
+package org.training.account.service.eventsourcing;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * JDBC access of the event-sourced balances: appends the events, reads and writes the snapshots and closes the accounts.
+ * Events are appended in the transaction of the caller, if any; the projection is loaded and snapshotted in
+ * transactions of its own, so they never depend on the outcome of the caller.
+ */
+public class BalanceEventStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceEventStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Rebuilds the balance of an account from its last snapshot and the events appended after it.
+     * The first time an account is read, its balance column becomes the initial snapshot.
+     *
+     * @param accountNumber the account number
+     * @return the balance and the last event it includes, or empty if the account does not exist
+     */
+    public Optional<BalanceState> load(String accountNumber) {
+
+        return transactionTemplate.execute(status -> {
+            Optional<BalanceState> snapshot = jdbcTemplate.query(
+                    "SELECT balance, last_event_id FROM balance_snapshot WHERE account_number = ?",
+                    (resultSet, row) -> new BalanceState(Money.of(resultSet.getBigDecimal("balance")).getMinorUnits(),
+                            resultSet.getLong("last_event_id")),
+                    accountNumber).stream().findFirst();
+            if (snapshot.isEmpty()) {
+                Optional<BigDecimal> balance = jdbcTemplate.queryForList(
+                        "SELECT available_balance FROM account WHERE account_number = ?", BigDecimal.class, accountNumber)
+                        .stream().filter(Objects::nonNull).findFirst();
+                if (balance.isEmpty()) {
+                    return Optional.empty();
+                }
+                jdbcTemplate.update("INSERT INTO balance_snapshot (account_number, balance, last_event_id, taken_at) VALUES (?, ?, 0, ?)",
+                        accountNumber, balance.get(), Timestamp.valueOf(LocalDateTime.now()));
+                snapshot = Optional.of(new BalanceState(Money.of(balance.get()).getMinorUnits(), 0L));
+            }
+
+            BalanceState state = snapshot.get();
+            jdbcTemplate.query("SELECT event_id, amount FROM balance_event WHERE account_number = ? AND event_id > ? ORDER BY event_id",
+                    resultSet -> {
+                        state.apply(Money.of(resultSet.getBigDecimal("amount")).getMinorUnits(), resultSet.getLong("event_id"));
+                    }, accountNumber, state.getLastEventId());
+            return Optional.of(state);
+        });
+    }
+
+    /**
+     * Closes an account, once the projection made sure its balance is zero.
+     *
+     * @param accountNumber the account number
+     * @return false if the account does not exist
+     */
+    public boolean close(String accountNumber) {
+
+        return jdbcTemplate.update("UPDATE account SET account_status = ?, version = version + 1 WHERE account_number = ?",
+                AccountStatus.CLOSED.name(), accountNumber) > 0;
+    }
+
+    /**
+     * Reads the status of an account.
+     *
+     * @param accountNumber the account number
+     * @return the status, or empty if the account does not exist
+     */
+    public Optional<AccountStatus> status(String accountNumber) {
+
+        return jdbcTemplate.queryForList("SELECT account_status FROM account WHERE account_number = ?", String.class, accountNumber)
+                .stream().findFirst().map(AccountStatus::valueOf);
+    }
+
+    /**
+     * Appends a balance change with a single insert, in the transaction of the caller if there is one.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount
+     * @return the ID of the event
+     */
+    public long append(String accountNumber, Money amount) {
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO balance_event (account_number, amount, created_at) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, accountNumber);
+            statement.setBigDecimal(2, amount.toBigDecimal());
+            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    /**
+     * Moves the snapshot of an account up to the given event and copies the balance to the account, so
+     * replays start from there and the balance column is at most one snapshot interval behind.
+     *
+     * @param accountNumber the account number
+     * @param balance       the balance including every event up to the last event ID
+     * @param lastEventId   the last event included in the balance
+     */
+    public void snapshot(String accountNumber, Money balance, long lastEventId) {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE balance_snapshot SET balance = ?, last_event_id = ?, taken_at = ? WHERE account_number = ?",
+                    balance.toBigDecimal(), lastEventId, Timestamp.valueOf(LocalDateTime.now()), accountNumber);
+            jdbcTemplate.update("UPDATE account SET available_balance = ?, version = version + 1 WHERE account_number = ?",
+                    balance.toBigDecimal(), accountNumber);
+        });
+    }
+}
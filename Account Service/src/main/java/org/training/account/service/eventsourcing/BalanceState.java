@@ -0,0 +1,56 @@
+package org.training.account.service.eventsourcing;
+
+import lombok.Getter;
+
+/**
+ * In-memory projection of an event-sourced balance, in minor units.
+ * Changes are made while holding the monitor of the state; the balance can be read without it.
+ * The balance is the available balance: it already includes the debits of transactions that have not committed yet,
+ * but not their credits.
+ */
+@Getter
+public class BalanceState {
+
+    private volatile long balance;
+
+    private long lastEventId;
+
+    private int eventsSinceSnapshot;
+
+    private int pendingEvents;
+
+    private boolean stale;
+
+    BalanceState(long balance, long lastEventId) {
+
+        this.balance = balance;
+        this.lastEventId = lastEventId;
+    }
+
+    void apply(long amount, long eventId) {
+
+        balance = Math.addExact(balance, amount);
+        lastEventId = Math.max(lastEventId, eventId);
+        eventsSinceSnapshot++;
+    }
+
+    void revert(long amount) {
+        balance = Math.subtractExact(balance, amount);
+    }
+
+    void pending() {
+        pendingEvents++;
+    }
+
+    void resolved() {
+        pendingEvents--;
+    }
+
+    void stale() {
+        stale = true;
+    }
+
+    void snapshotted() {
+        eventsSinceSnapshot = 0;
+    }
+}
@@ -0,0 +1,220 @@
+package org.training.account.service.eventsourcing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.training.account.service.exception.AccountClosingException;
+import org.training.account.service.exception.AccountStatusException;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.InvalidAmountException;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.ledger.LedgerProperties;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event-sourced balances of the configured accounts. Every balance change is appended as an immutable event,
+ * so writers never contend on the account row and the balance can be audited and rebuilt at any time.
+ * The current balances are kept in an in-memory projection, rebuilt from the last snapshot and the
+ * events after it the first time an account is used; the snapshotter compacts the replay every few events.
+ *
+ * <p>Like the ledger, the projection assumes it is the only writer of these balances: the accounts must be
+ * served by a single instance, and their balance changes must all go through it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.config.event-sourcing", name = "enabled", havingValue = "true")
+public class EventSourcedBalances {
+
+    private final EventSourcingProperties eventSourcingProperties;
+
+    private final BalanceEventStore balanceEventStore;
+
+    private final Map<String, BalanceState> projection = new ConcurrentHashMap<>();
+
+    public EventSourcedBalances(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                EventSourcingProperties eventSourcingProperties, LedgerProperties ledgerProperties,
+                                MeterRegistry meterRegistry) {
+
+        if (ledgerProperties.isEnabled() && !Collections.disjoint(ledgerProperties.getAccounts(), eventSourcingProperties.getAccounts())) {
+            throw new IllegalStateException("An account cannot be both managed by the ledger and event-sourced");
+        }
+        this.eventSourcingProperties = eventSourcingProperties;
+        this.balanceEventStore = new BalanceEventStore(jdbcTemplate, transactionManager);
+        Gauge.builder("account.balance.projection.size", projection, Map::size)
+                .description("Event-sourced balances loaded in the projection")
+                .register(meterRegistry);
+        log.info("event sourcing the balances of {} accounts", eventSourcingProperties.getAccounts().size());
+    }
+
+    /**
+     * Whether the balance of the account is event-sourced.
+     *
+     * @param accountNumber the account number
+     * @return true if balance changes of the account must be appended as events
+     */
+    public boolean owns(String accountNumber) {
+        return eventSourcingProperties.getAccounts().contains(accountNumber);
+    }
+
+    /**
+     * Reads the current balance from the projection.
+     *
+     * @param accountNumber the account number
+     * @return the balance including every appended event
+     * @throws ResourceNotFound if the account does not exist
+     */
+    public Money balance(String accountNumber) {
+        return Money.ofMinor(state(accountNumber).getBalance());
+    }
+
+    /**
+     * Appends a balance change, provided the balance stays non-negative and, for a debit, the account is active.
+     * Changes of one account are appended one at a time, so the projection never disagrees with the events.
+     * Inside a transaction the event is part of it: a debit is taken out of the projection right away and put back
+     * if the transaction rolls back, while a credit is only added once the transaction commits, so no other change
+     * ever spends an amount that may not be there.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount to apply
+     * @return the balance after the change
+     * @throws ResourceNotFound       if the account does not exist
+     * @throws AccountStatusException if a debit is requested on an account that is not active
+     * @throws InSufficientFunds      if a debit exceeds the balance
+     */
+    public Money apply(String accountNumber, Money amount) {
+
+        BalanceState state = state(accountNumber);
+        if (amount.isNegative() && !balanceEventStore.status(accountNumber).map(AccountStatus.ACTIVE::equals).orElse(false)) {
+            throw new AccountStatusException("Account is inactive/closed");
+        }
+        synchronized (state) {
+            long balance;
+            try {
+                balance = Math.addExact(state.getBalance(), amount.getMinorUnits());
+            } catch (ArithmeticException exception) {
+                throw new InvalidAmountException("Amount is out of range");
+            }
+            if (balance < 0) {
+                throw new InSufficientFunds("Insufficient balance in the account");
+            }
+            long eventId = balanceEventStore.append(accountNumber, amount);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                state.apply(amount.getMinorUnits(), eventId);
+                return Money.ofMinor(balance);
+            }
+            if (amount.isNegative()) {
+                state.apply(amount.getMinorUnits(), eventId);
+            }
+            state.pending();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    resolve(accountNumber, state, amount, eventId, status);
+                }
+            });
+            return Money.ofMinor(balance);
+        }
+    }
+
+    /**
+     * Closes an account if its projected balance is zero. The balance cannot change while the account is being
+     * closed, as changes of one account are appended one at a time, and an account is not closed while a
+     * transaction that changed its balance is still running.
+     *
+     * @param accountNumber the account number
+     * @throws ResourceNotFound        if the account does not exist
+     * @throws AccountClosingException if the balance is not zero or is being changed
+     */
+    public void close(String accountNumber) {
+
+        BalanceState state = state(accountNumber);
+        synchronized (state) {
+            if (state.getPendingEvents() > 0) {
+                throw new AccountClosingException("Balance of the account is being changed, please retry");
+            }
+            if (state.getBalance() != 0) {
+                throw new AccountClosingException("Balance should be zero");
+            }
+            if (!balanceEventStore.close(accountNumber)) {
+                throw new ResourceNotFound("Account not found on the server");
+            }
+        }
+    }
+
+    /**
+     * Snapshots every account with at least the configured number of events since its last snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.config.event-sourcing.snapshot-interval-millis}")
+    public void snapshot() {
+        snapshot(eventSourcingProperties.getSnapshotEvery());
+    }
+
+    /**
+     * Snapshots every account with pending events before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshot(1);
+    }
+
+    private void snapshot(int minimumEvents) {
+
+        projection.forEach((accountNumber, state) -> {
+            synchronized (state) {
+                if (state.getEventsSinceSnapshot() < minimumEvents || state.getPendingEvents() > 0 || state.isStale()) {
+                    return;
+                }
+                try {
+                    balanceEventStore.snapshot(accountNumber, Money.ofMinor(state.getBalance()), state.getLastEventId());
+                    log.debug("snapshotted account {} at event {}", accountNumber, state.getLastEventId());
+                    state.snapshotted();
+                } catch (RuntimeException exception) {
+                    log.error("unable to snapshot account {}, retrying at the next run", accountNumber, exception);
+                }
+            }
+        });
+    }
+
+    /**
+     * Settles the change of a transaction in the projection once the transaction is over. When its outcome is
+     * unknown, the projection of the account is dropped as soon as no other transaction uses it, to be rebuilt
+     * from the events that were actually committed.
+     */
+    private void resolve(String accountNumber, BalanceState state, Money amount, long eventId, int status) {
+
+        synchronized (state) {
+            state.resolved();
+            if (status == TransactionSynchronization.STATUS_COMMITTED && !amount.isNegative()) {
+                state.apply(amount.getMinorUnits(), eventId);
+            } else if (status != TransactionSynchronization.STATUS_COMMITTED && amount.isNegative()) {
+                state.revert(amount.getMinorUnits());
+            }
+            if (status == TransactionSynchronization.STATUS_UNKNOWN) {
+                log.error("outcome of balance event {} of account {} is unknown, rebuilding its projection", eventId, accountNumber);
+                state.stale();
+            }
+            if (state.isStale() && state.getPendingEvents() == 0) {
+                projection.remove(accountNumber, state);
+            }
+        }
+    }
+
+    private BalanceState state(String accountNumber) {
+
+        return projection.computeIfAbsent(accountNumber, key -> balanceEventStore.load(key)
+                .orElseThrow(() -> new ResourceNotFound("Account not found on the server")));
+    }
+}
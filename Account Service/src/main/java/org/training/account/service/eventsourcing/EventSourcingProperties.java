@@ -0,0 +1,34 @@
+package org.training.account.service.eventsourcing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.config.event-sourcing")
+public class EventSourcingProperties {
+
+    /**
+     * Whether balances of the configured accounts are event-sourced.
+     */
+    private boolean enabled;
+
+    /**
+     * Account numbers whose balance changes are appended as events instead of updating the balance column.
+     */
+    private Set<String> accounts = new HashSet<>();
+
+    /**
+     * Number of events after which the balance of an account is snapshotted.
+     */
+    private int snapshotEvery = 1000;
+
+    /**
+     * Delay between two runs of the snapshotter.
+     */
+    private long snapshotIntervalMillis = 5000;
+}
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class ConcurrentUpdateException extends GlobalException {
+    public ConcurrentUpdateException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.CONFLICT);
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class DependencyTimeoutException extends GlobalException {
+    public DependencyTimeoutException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.SERVICE_UNAVAILABLE);
+    }
+}
@@ -8,4 +8,6 @@ public class GlobalErrorCode {
     public static final String CONFLICT = "409";
 
     public static final String BAD_REQUEST = "400";
+
+    public static final String SERVICE_UNAVAILABLE = "503";
 }
@@ -39,6 +39,23 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 return new ResponseEntity<>(new ErrorResponse(badRequest, ex.getLocalizedMessage()), HttpStatus.BAD_REQUEST);
 	}
 
+    /**
+     * Exception handler for StaleVersionException, answered with 409 so the client reads the account again
+     * before repeating its update.
+     *
+     * @param staleVersionException The StaleVersionException to handle.
+     * @return The ResponseEntity with the error response.
+     */
+    @ExceptionHandler(StaleVersionException.class)
+    public ResponseEntity<Object> handleStaleVersionException(StaleVersionException staleVersionException) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder()
+                        .errorCode(staleVersionException.getErrorCode())
+                        .message(staleVersionException.getErrorMessage())
+                        .build());
+    }
+
     /**
      * Exception handler for GlobalException.
      *
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class InvalidAmountException extends GlobalException {
+    public InvalidAmountException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class InvalidLookupException extends GlobalException {
+    public InvalidLookupException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.BAD_REQUEST);
+    }
+}
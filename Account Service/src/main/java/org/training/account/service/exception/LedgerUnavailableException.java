@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class LedgerUnavailableException extends GlobalException {
+    public LedgerUnavailableException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class StaleVersionException extends GlobalException {
+    public StaleVersionException(String errorMessage) {
+        super(errorMessage, GlobalErrorCode.CONFLICT);
+    }
+}
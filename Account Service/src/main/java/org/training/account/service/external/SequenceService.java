@@ -2,7 +2,9 @@ package org.training.account.service.external;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.training.account.service.model.dto.external.SequenceDto;
+import org.training.account.service.model.dto.external.SequenceRangeDto;
 
 @FeignClient(name = "sequence-generator")
 public interface SequenceService {
@@ -14,4 +16,13 @@ public interface SequenceService {
      */
     @PostMapping("/sequence")
     SequenceDto generateAccountNumber();
+
+    /**
+     * Generates a contiguous range of account numbers in a single call.
+     *
+     * @param count the number of account numbers to generate
+     * @return the first account number of the range and the size of the range
+     */
+    @PostMapping("/sequence/batch")
+    SequenceRangeDto generateAccountNumbers(@RequestParam int count);
 }
@@ -4,19 +4,29 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.account.service.configuration.FeignConfiguration;
-import org.training.account.service.model.dto.external.TransactionResponse;
+import org.training.account.service.model.dto.external.TransactionPage;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @FeignClient(name = "transaction-service", configuration = FeignConfiguration.class)
 public interface TransactionService {
 
     /**
-     * Retrieves a list of transactions from the specified account ID.
+     * Retrieves a page of the transactions of the specified account ID, newest first.
      *
-     * @param accountId the ID of the account
-     * @return a list of transaction responses
+     * @param accountId       the ID of the account
+     * @param transactionType the type of the transactions, or null for every type
+     * @param fromDate        the earliest transaction date, or null
+     * @param toDate          the latest transaction date, or null
+     * @param cursor          the next cursor of the previous page, or null for the first page
+     * @param size            the number of transactions of the page, or null for the default size
+     * @return the page of transaction responses
      */
-    @GetMapping("/transactions")
-    List<TransactionResponse> getTransactionsFromAccountId(@RequestParam String accountId);
+    @GetMapping("/transactions/history")
+    TransactionPage getTransactionHistory(@RequestParam String accountId,
+                                          @RequestParam(required = false) String transactionType,
+                                          @RequestParam(required = false) LocalDate fromDate,
+                                          @RequestParam(required = false) LocalDate toDate,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size);
 }
@@ -0,0 +1,78 @@
+package org.training.account.service.ledger;
+
+import lombok.Getter;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Command waiting in the queue of a ledger partition, completed with the balance of the account once applied.
+ * A balance change is completed once journaled; status changes, closures and reads go through the same queue so the
+ * partition sees them in order with the balance changes of the account.
+ */
+@Getter
+public class LedgerCommand {
+
+    /**
+     * What a command does to its account.
+     */
+    public enum Kind {
+        /** Applies a signed amount to the balance. */
+        BALANCE_CHANGE,
+        /** Refreshes the status the partition checks debits against, after it was changed in the database. */
+        STATUS_CHANGE,
+        /** Closes the account, provided its balance is zero. */
+        CLOSE,
+        /** Reads the balance, including the changes not committed to the database yet. */
+        READ
+    }
+
+    private final Kind kind;
+
+    private final String accountNumber;
+
+    private final Money amount;
+
+    private final AccountStatus accountStatus;
+
+    private final String reference;
+
+    private final CompletableFuture<Money> result = new CompletableFuture<>();
+
+    private LedgerCommand(Kind kind, String accountNumber, Money amount, AccountStatus accountStatus, String reference) {
+
+        this.kind = kind;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.accountStatus = accountStatus;
+        this.reference = reference;
+    }
+
+    public LedgerCommand(String accountNumber, Money amount) {
+        this(accountNumber, amount, null);
+    }
+
+    /**
+     * Creates a balance change that is applied at most once per reference, however often it is submitted.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount to apply
+     * @param reference     identifies the change, or null if it is not to be deduplicated
+     */
+    public LedgerCommand(String accountNumber, Money amount, String reference) {
+        this(Kind.BALANCE_CHANGE, accountNumber, amount, null, reference);
+    }
+
+    static LedgerCommand statusChange(String accountNumber, AccountStatus accountStatus) {
+        return new LedgerCommand(Kind.STATUS_CHANGE, accountNumber, null, accountStatus, null);
+    }
+
+    static LedgerCommand close(String accountNumber) {
+        return new LedgerCommand(Kind.CLOSE, accountNumber, null, AccountStatus.CLOSED, null);
+    }
+
+    static LedgerCommand read(String accountNumber) {
+        return new LedgerCommand(Kind.READ, accountNumber, null, null, null);
+    }
+}
@@ -0,0 +1,176 @@
+package org.training.account.service.ledger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.training.account.service.exception.GlobalException;
+import org.training.account.service.exception.LedgerUnavailableException;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * In-memory ledger for hot accounts. Accounts are partitioned by account number onto single-threaded
+ * processors, so a balance change costs a queue hand-off and a share of a group fsync instead of a row lock.
+ *
+ * <p>The ledger owns the balances of the configured accounts while it runs: their balance changes, status
+ * changes and closures must all go through it, so it never works from a balance or status it no longer has.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.config.ledger", name = "enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private final LedgerProperties ledgerProperties;
+
+    private final List<LedgerPartition> partitions = new ArrayList<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    public LedgerEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        LedgerProperties ledgerProperties, MeterRegistry meterRegistry) {
+
+        this.ledgerProperties = ledgerProperties;
+        LedgerStore ledgerStore = new LedgerStore(jdbcTemplate, transactionManager);
+        try {
+            for (int partition = 0; partition < ledgerProperties.getPartitions(); partition++) {
+                partitions.add(new LedgerPartition(partition, ledgerStore, ledgerProperties, meterRegistry));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("unable to open the ledger journals", exception);
+        }
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            Thread thread = new Thread(partitions.get(partition), "ledger-partition-" + partition);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("ledger started with {} partitions for {} accounts", partitions.size(), ledgerProperties.getAccounts().size());
+    }
+
+    /**
+     * Whether the balance of the account is managed by the ledger.
+     *
+     * @param accountNumber the account number
+     * @return true if balance changes of the account must go through the ledger
+     */
+    public boolean owns(String accountNumber) {
+        return ledgerProperties.getAccounts().contains(accountNumber);
+    }
+
+    /**
+     * Queues a balance change on the partition of the account.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount to apply
+     * @return completes with the new balance once the change is journaled
+     * @throws LedgerUnavailableException if the partition does not accept the change in time
+     */
+    public CompletableFuture<Money> submit(String accountNumber, Money amount) {
+        return submit(new LedgerCommand(accountNumber, amount));
+    }
+
+    /**
+     * Applies a balance change and waits until it is durable.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount to apply
+     * @return the balance of the account after the change
+     */
+    public Money apply(String accountNumber, Money amount) {
+        return join(submit(accountNumber, amount));
+    }
+
+    /**
+     * Applies a balance change at most once per reference and waits until it is durable. A change submitted again
+     * with the reference of a change the ledger already applied is acknowledged without being applied twice, so a
+     * change whose outcome is unknown can safely be submitted again.
+     *
+     * @param accountNumber the account number
+     * @param amount        the signed amount to apply
+     * @param reference     identifies the change
+     * @return the balance of the account after the change
+     */
+    public Money apply(String accountNumber, Money amount, String reference) {
+        return join(submit(new LedgerCommand(accountNumber, amount, reference)));
+    }
+
+    /**
+     * Reads the balance of an account as held by the ledger, which the database only catches up with at the next commit.
+     *
+     * @param accountNumber the account number
+     * @return the balance of the account, including every acknowledged change
+     * @throws org.training.account.service.exception.ResourceNotFound if the account does not exist
+     */
+    public Money balance(String accountNumber) {
+        return join(submit(LedgerCommand.read(accountNumber)));
+    }
+
+    /**
+     * Makes the ledger check debits against the status an account was just given in the database.
+     *
+     * @param accountNumber the account number
+     * @param accountStatus the new status of the account
+     */
+    public void refreshStatus(String accountNumber, AccountStatus accountStatus) {
+        join(submit(LedgerCommand.statusChange(accountNumber, accountStatus)));
+    }
+
+    /**
+     * Closes an account if its balance, as held by the ledger, is zero.
+     *
+     * @param accountNumber the account number
+     * @throws org.training.account.service.exception.AccountClosingException if the balance is not zero
+     */
+    public void close(String accountNumber) {
+        join(submit(LedgerCommand.close(accountNumber)));
+    }
+
+    private CompletableFuture<Money> submit(LedgerCommand command) {
+
+        LedgerPartition partition = partitions.get(Math.floorMod(command.getAccountNumber().hashCode(), partitions.size()));
+        try {
+            if (!partition.offer(command, ledgerProperties.getSubmitTimeoutMillis())) {
+                throw new LedgerUnavailableException("Ledger is busy, please retry");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new LedgerUnavailableException("Interrupted while queueing the ledger command");
+        }
+        return command.getResult();
+    }
+
+    private Money join(CompletableFuture<Money> result) {
+
+        try {
+            return result.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof GlobalException globalException) {
+                throw globalException;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Drains every partition and commits the remaining changes before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+
+        partitions.forEach(LedgerPartition::stop);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
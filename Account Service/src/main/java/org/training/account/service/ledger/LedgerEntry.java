@@ -0,0 +1,25 @@
+package org.training.account.service.ledger;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.training.account.service.model.Money;
+
+/**
+ * Balance change recorded in the journal of a ledger partition, with the reference it was applied under, if any.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LedgerEntry {
+
+    private final long sequence;
+
+    private final String accountNumber;
+
+    private final Money amount;
+
+    private final String reference;
+
+    public LedgerEntry(long sequence, String accountNumber, Money amount) {
+        this(sequence, accountNumber, amount, null);
+    }
+}
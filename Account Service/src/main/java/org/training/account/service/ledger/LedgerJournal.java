@@ -0,0 +1,154 @@
+package org.training.account.service.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.training.account.service.model.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of a ledger partition.
+ * Entries are buffered and written with a single write and fsync per batch; every record carries
+ * its length and checksum, so a record torn by a crash ends the replay instead of corrupting it.
+ */
+@Slf4j
+public class LedgerJournal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    /**
+     * Opens the journal, creating it when it does not exist yet.
+     *
+     * @param path the journal file
+     * @throws IOException if the file cannot be opened
+     */
+    public LedgerJournal(Path path) throws IOException {
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Buffers an entry, it is only durable after the next {@link #force()}.
+     *
+     * @param entry the entry to journal
+     */
+    public void append(LedgerEntry entry) throws IOException {
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(payload)) {
+            output.writeLong(entry.getSequence());
+            output.writeUTF(entry.getAccountNumber());
+            output.writeUTF(entry.getAmount().toString());
+            output.writeUTF(entry.getReference() == null ? "" : entry.getReference());
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        try (DataOutputStream output = new DataOutputStream(pending)) {
+            output.writeInt(bytes.length);
+            output.writeInt((int) crc.getValue());
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the buffered entries and forces them to disk.
+     */
+    public void force() throws IOException {
+
+        if (pending.size() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        pending.reset();
+        channel.force(false);
+    }
+
+    /**
+     * Replays the journaled entries with a sequence above the given one.
+     *
+     * @param afterSequence the last sequence already committed
+     * @param consumer      receives the entries to replay, in journal order
+     * @return the last sequence found in the journal, or {@code afterSequence} if there is none above it
+     */
+    public long replay(long afterSequence, Consumer<LedgerEntry> consumer) throws IOException {
+
+        long lastSequence = afterSequence;
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (content.remaining() >= HEADER_BYTES) {
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length <= 0 || length > content.remaining()) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            content.get(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("ignoring torn record at the end of ledger journal {}", path);
+                break;
+            }
+            LedgerEntry entry = decode(ByteBuffer.wrap(bytes));
+            if (entry.getSequence() > lastSequence) {
+                consumer.accept(entry);
+                lastSequence = entry.getSequence();
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Discards the journal once every entry is committed to the database.
+     */
+    public void reset() throws IOException {
+
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static LedgerEntry decode(ByteBuffer bytes) {
+
+        long sequence = bytes.getLong();
+        String accountNumber = readUtf(bytes);
+        Money amount = Money.of(new BigDecimal(readUtf(bytes)));
+        String reference = bytes.hasRemaining() ? readUtf(bytes) : "";
+        return new LedgerEntry(sequence, accountNumber, amount, reference.isEmpty() ? null : reference);
+    }
+
+    private static String readUtf(ByteBuffer bytes) {
+
+        byte[] value = new byte[bytes.getShort() & 0xFFFF];
+        bytes.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,340 @@
+package org.training.account.service.ledger;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.training.account.service.exception.AccountClosingException;
+import org.training.account.service.exception.AccountStatusException;
+import org.training.account.service.exception.GlobalException;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.InvalidAmountException;
+import org.training.account.service.exception.LedgerUnavailableException;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+import org.training.account.service.model.entity.Account;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer processor of a slice of the ledger accounts.
+ * Only the partition thread touches the balances, so they need no locks: commands are drained from
+ * a bounded queue in batches, applied in memory to balances kept as minor units, journaled with one fsync per batch and acknowledged.
+ * The aggregated changes are committed to the database at most every flush interval.
+ */
+@Slf4j
+public class LedgerPartition implements Runnable {
+
+    private final int partition;
+
+    private final LedgerStore ledgerStore;
+
+    private final LedgerJournal journal;
+
+    private final BlockingQueue<LedgerCommand> queue;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final Map<String, LedgerAccount> accounts = new HashMap<>();
+
+    private final Map<String, Money> uncommitted = new HashMap<>();
+
+    private final Set<String> uncommittedReferences = new HashSet<>();
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer commitLatency;
+
+    private long sequence;
+
+    private long lastCommit = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    /**
+     * Opens the journal of the partition and replays into the database whatever was not committed yet.
+     */
+    public LedgerPartition(int partition, LedgerStore ledgerStore, LedgerProperties ledgerProperties,
+                           MeterRegistry meterRegistry) throws IOException {
+
+        this.partition = partition;
+        this.ledgerStore = ledgerStore;
+        this.journal = new LedgerJournal(Path.of(ledgerProperties.getJournalDirectory(), "ledger-" + partition + ".wal"));
+        this.queue = new ArrayBlockingQueue<>(ledgerProperties.getRingSize());
+        this.batchSize = ledgerProperties.getBatchSize();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(ledgerProperties.getFlushIntervalMillis());
+
+        String tag = String.valueOf(partition);
+        Gauge.builder("ledger.queue.depth", queue, BlockingQueue::size)
+                .description("Commands waiting to be applied by the ledger partition")
+                .tag("partition", tag)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("ledger.batch.size")
+                .description("Commands journaled with a single fsync")
+                .tag("partition", tag)
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("ledger.commit.latency")
+                .description("Time taken to commit the aggregated balance changes to the database")
+                .tag("partition", tag)
+                .register(meterRegistry);
+
+        recover();
+    }
+
+    /**
+     * Queues a command for the partition thread.
+     *
+     * @return whether the command was accepted before the timeout
+     */
+    boolean offer(LedgerCommand command, long timeoutMillis) throws InterruptedException {
+        return running && queue.offer(command, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops taking commands; the partition thread drains the queue and commits before it exits.
+     */
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+
+        List<LedgerCommand> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                LedgerCommand first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch);
+                    batch.clear();
+                }
+                if (!uncommitted.isEmpty() && (first == null || System.nanoTime() - lastCommit >= flushIntervalNanos)) {
+                    commit();
+                }
+            }
+            commit();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException exception) {
+            log.error("ledger partition {} stopped, the journal will be replayed on the next start", partition, exception);
+            running = false;
+            failQueued(batch);
+        } finally {
+            closeJournal();
+        }
+    }
+
+    /**
+     * Applies a batch in memory, journals it with a single fsync and only then acknowledges it.
+     * A command that cannot be applied, for instance because its account could not be loaded, fails on its own
+     * without stopping the partition; only a journal failure does.
+     */
+    private void process(List<LedgerCommand> batch) throws IOException {
+
+        List<LedgerCommand> applied = new ArrayList<>(batch.size());
+        List<Money> balances = new ArrayList<>(batch.size());
+        for (LedgerCommand command : batch) {
+            try {
+                balances.add(apply(command));
+                applied.add(command);
+            } catch (GlobalException exception) {
+                command.getResult().completeExceptionally(exception);
+            } catch (RuntimeException exception) {
+                log.error("ledger partition {} unable to apply a command to account {}",
+                        partition, command.getAccountNumber(), exception);
+                command.getResult().completeExceptionally(
+                        new LedgerUnavailableException("Unable to apply the balance change, please retry"));
+            }
+        }
+        journal.force();
+        batchSizes.record(applied.size());
+        for (int index = 0; index < applied.size(); index++) {
+            applied.get(index).getResult().complete(balances.get(index));
+        }
+    }
+
+    private Money apply(LedgerCommand command) throws IOException {
+
+        return switch (command.getKind()) {
+            case BALANCE_CHANGE -> applyBalanceChange(command);
+            case STATUS_CHANGE -> applyStatusChange(command);
+            case CLOSE -> applyClose(command);
+            case READ -> Money.ofMinor(account(command.getAccountNumber()).balance);
+        };
+    }
+
+    /**
+     * Applies a balance change, unless a change with the same reference was applied before: it is then only
+     * acknowledged with the current balance, so a change whose outcome was unknown can be submitted again.
+     */
+    private Money applyBalanceChange(LedgerCommand command) throws IOException {
+
+        LedgerAccount account = account(command.getAccountNumber());
+        String reference = command.getReference();
+        if (reference != null && (uncommittedReferences.contains(reference) || ledgerStore.applied(reference))) {
+            log.info("ledger partition {} already applied change {} to account {}", partition, reference, command.getAccountNumber());
+            return Money.ofMinor(account.balance);
+        }
+        Money amount = command.getAmount();
+        if (amount.isNegative() && !account.accountStatus.equals(AccountStatus.ACTIVE)) {
+            throw new AccountStatusException("Account is inactive/closed");
+        }
+        long balance;
+        try {
+            balance = Math.addExact(account.balance, amount.getMinorUnits());
+        } catch (ArithmeticException exception) {
+            throw new InvalidAmountException("Amount is out of range");
+        }
+        if (balance < 0) {
+            throw new InSufficientFunds("Insufficient balance in the account");
+        }
+
+        journal.append(new LedgerEntry(++sequence, command.getAccountNumber(), amount, reference));
+        account.balance = balance;
+        uncommitted.merge(command.getAccountNumber(), amount, Money::plus);
+        if (reference != null) {
+            uncommittedReferences.add(reference);
+        }
+        return Money.ofMinor(balance);
+    }
+
+    /**
+     * Takes the status the account was given in the database, so debits are checked against it from now on.
+     * An account that is not loaded yet reads its status when it is.
+     */
+    private Money applyStatusChange(LedgerCommand command) {
+
+        LedgerAccount account = accounts.get(command.getAccountNumber());
+        if (account == null) {
+            return Money.ZERO;
+        }
+        account.accountStatus = command.getAccountStatus();
+        return Money.ofMinor(account.balance);
+    }
+
+    /**
+     * Closes an account whose in-memory balance is zero. The pending changes of the partition are committed
+     * first, so the account is never closed in the database while a balance change is only in the journal.
+     */
+    private Money applyClose(LedgerCommand command) throws IOException {
+
+        LedgerAccount account = account(command.getAccountNumber());
+        if (account.balance != 0) {
+            throw new AccountClosingException("Balance should be zero");
+        }
+        commit();
+        if (!uncommitted.isEmpty()) {
+            throw new LedgerUnavailableException("Unable to commit the ledger, please retry");
+        }
+        if (!ledgerStore.close(command.getAccountNumber())) {
+            accounts.remove(command.getAccountNumber());
+            throw new ResourceNotFound("Account not found on the server");
+        }
+        account.accountStatus = AccountStatus.CLOSED;
+        return Money.ZERO;
+    }
+
+    private LedgerAccount account(String accountNumber) {
+
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            account = ledgerStore.load(accountNumber)
+                    .map(LedgerAccount::new)
+                    .orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+            accounts.put(accountNumber, account);
+        }
+        return account;
+    }
+
+    /**
+     * Group-commits the aggregated changes with the checkpoint and discards the journal they came from.
+     * A failed commit is retried at the next flush interval, the changes stay safe in the journal meanwhile.
+     */
+    private void commit() throws IOException {
+
+        if (uncommitted.isEmpty()) {
+            return;
+        }
+        lastCommit = System.nanoTime();
+        try {
+            commitLatency.record(() -> ledgerStore.commit(partition, uncommitted, uncommittedReferences, sequence));
+        } catch (RuntimeException exception) {
+            log.error("unable to commit ledger partition {}, retrying at the next flush", partition, exception);
+            return;
+        }
+        uncommitted.clear();
+        uncommittedReferences.clear();
+        journal.reset();
+    }
+
+    /**
+     * Commits the journaled changes a previous run did not commit, skipping those already covered by the checkpoint.
+     */
+    private void recover() throws IOException {
+
+        long checkpoint = ledgerStore.checkpoint(partition);
+        Map<String, Money> replayed = new HashMap<>();
+        Set<String> references = new HashSet<>();
+        sequence = journal.replay(checkpoint, entry -> {
+            replayed.merge(entry.getAccountNumber(), entry.getAmount(), Money::plus);
+            if (entry.getReference() != null) {
+                references.add(entry.getReference());
+            }
+        });
+        if (!replayed.isEmpty()) {
+            log.info("replaying {} accounts of ledger partition {} up to sequence {}", replayed.size(), partition, sequence);
+            ledgerStore.commit(partition, replayed, references, sequence);
+        }
+        journal.reset();
+    }
+
+    private void failQueued(List<LedgerCommand> batch) {
+
+        GlobalException unavailable = new LedgerUnavailableException("Ledger partition is unavailable");
+        batch.forEach(command -> command.getResult().completeExceptionally(unavailable));
+        LedgerCommand command;
+        while ((command = queue.poll()) != null) {
+            command.getResult().completeExceptionally(unavailable);
+        }
+    }
+
+    private void closeJournal() {
+
+        try {
+            journal.close();
+        } catch (IOException exception) {
+            log.error("unable to close the journal of ledger partition {}", partition, exception);
+        }
+    }
+
+    /**
+     * In-memory state of a ledger account, only ever touched by the partition thread.
+     */
+    private static final class LedgerAccount {
+
+        private AccountStatus accountStatus;
+
+        private long balance;
+
+        private LedgerAccount(Account account) {
+            this.accountStatus = account.getAccountStatus();
+            this.balance = Money.of(account.getAvailableBalance()).getMinorUnits();
+        }
+    }
+}
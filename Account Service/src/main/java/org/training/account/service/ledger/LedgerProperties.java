@@ -0,0 +1,45 @@
+package org.training.account.service.ledger;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.config.ledger")
+public class LedgerProperties {
+
+    /**
+     * Whether the in-memory ledger engine is started.
+     */
+    private boolean enabled;
+
+    /**
+     * Account numbers whose balance changes are applied by the ledger instead of a row update.
+     */
+    private Set<String> accounts = new HashSet<>();
+
+    private int partitions = 4;
+
+    /**
+     * Capacity of the command queue of every partition.
+     */
+    private int ringSize = 8192;
+
+    /**
+     * Maximum number of commands journaled with one fsync.
+     */
+    private int batchSize = 512;
+
+    /**
+     * Maximum time the aggregated balance changes stay uncommitted in the database.
+     */
+    private long flushIntervalMillis = 50;
+
+    private long submitTimeoutMillis = 1000;
+
+    private String journalDirectory = "data/ledger";
+}
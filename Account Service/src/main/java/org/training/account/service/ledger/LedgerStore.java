@@ -0,0 +1,113 @@
+package org.training.account.service.ledger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.Money;
+import org.training.account.service.model.entity.Account;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access of the ledger engine: loads the balances it takes ownership of, group-commits
+ * the aggregated changes together with the partition checkpoint and the references of the changes, and closes
+ * the accounts it owns.
+ */
+public class LedgerStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reads the balance and status of an account.
+     *
+     * @param accountNumber the account number
+     * @return the account, or empty if it does not exist
+     */
+    public Optional<Account> load(String accountNumber) {
+
+        return jdbcTemplate.query("SELECT available_balance, account_status FROM account WHERE account_number = ?",
+                (resultSet, row) -> Account.builder()
+                        .accountNumber(accountNumber)
+                        .availableBalance(resultSet.getBigDecimal("available_balance"))
+                        .accountStatus(AccountStatus.valueOf(resultSet.getString("account_status"))).build(),
+                accountNumber).stream().findFirst();
+    }
+
+    /**
+     * Closes an account, once the ledger made sure its balance is zero.
+     *
+     * @param accountNumber the account number
+     * @return false if the account does not exist
+     */
+    public boolean close(String accountNumber) {
+
+        return jdbcTemplate.update("UPDATE account SET account_status = ?, version = version + 1 WHERE account_number = ?",
+                AccountStatus.CLOSED.name(), accountNumber) > 0;
+    }
+
+    /**
+     * Reads the last committed journal sequence of a partition.
+     *
+     * @param partition the partition
+     * @return the last committed sequence, zero if the partition never committed
+     */
+    public long checkpoint(int partition) {
+
+        return jdbcTemplate.queryForList("SELECT last_sequence FROM ledger_checkpoint WHERE partition_id = ?",
+                Long.class, partition).stream().findFirst().orElse(0L);
+    }
+
+    /**
+     * Whether a balance change with the given reference was committed.
+     *
+     * @param reference the reference of the change
+     * @return true if the change is already part of a committed balance
+     */
+    public boolean applied(String reference) {
+
+        return !jdbcTemplate.queryForList("SELECT reference FROM ledger_reference WHERE reference = ?", String.class, reference)
+                .isEmpty();
+    }
+
+    /**
+     * Applies the aggregated balance changes of a partition, records the references of the changes and moves
+     * its checkpoint in one transaction, so replaying the journal after a crash never applies a change twice.
+     *
+     * @param partition    the partition
+     * @param deltas       the aggregated change per account number
+     * @param references   the references of the changes that have one
+     * @param lastSequence the last journal sequence included in the changes
+     */
+    public void commit(int partition, Map<String, Money> deltas, Collection<String> references, long lastSequence) {
+
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((accountNumber, delta) -> updates.add(new Object[]{delta.toBigDecimal(), accountNumber}));
+        Timestamp appliedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = references.stream().map(reference -> new Object[]{reference, appliedAt}).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("UPDATE account SET available_balance = available_balance + ?, version = version + 1 " +
+                    "WHERE account_number = ?", updates);
+            jdbcTemplate.batchUpdate("INSERT INTO ledger_reference (reference, applied_at) VALUES (?, ?)", inserts);
+            if (jdbcTemplate.update("UPDATE ledger_checkpoint SET last_sequence = ? WHERE partition_id = ?",
+                    lastSequence, partition) == 0) {
+                jdbcTemplate.update("INSERT INTO ledger_checkpoint (partition_id, last_sequence) VALUES (?, ?)",
+                        partition, lastSequence);
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package org.training.account.service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the columns balance checks need, so they do not load the whole account.
+ */
+public interface AccountBalanceView {
+
+    BigDecimal getAvailableBalance();
+
+    AccountStatus getAccountStatus();
+}
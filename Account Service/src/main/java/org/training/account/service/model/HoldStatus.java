@@ -0,0 +1,5 @@
+package org.training.account.service.model;
+
+public enum HoldStatus {
+    PENDING, ACTIVE, CAPTURED, RELEASED, EXPIRED, SETTLED, REFUNDED
+}
@@ -0,0 +1,110 @@
+package org.training.account.service.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money held as a {@code long} count of minor units (paise), so balance arithmetic on the hot path
+ * does not allocate. All arithmetic is overflow-checked; amounts are converted from and to {@link BigDecimal}
+ * only at the JSON and persistence boundaries.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    private static final long MINOR_PER_MAJOR = 100L;
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an amount from a count of minor units.
+     *
+     * @param minorUnits the number of paise
+     * @return the amount
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Creates an amount from a whole number of major units.
+     *
+     * @param majorUnits the number of rupees
+     * @return the amount
+     * @throws ArithmeticException if the amount does not fit in a long count of minor units
+     */
+    public static Money ofMajor(long majorUnits) {
+        return ofMinor(Math.multiplyExact(majorUnits, MINOR_PER_MAJOR));
+    }
+
+    /**
+     * Converts a decimal amount.
+     *
+     * @param amount the amount
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit in a long
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0L;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Formats the amount as a plain decimal with two fractional digits, e.g. {@code -12.05}.
+     */
+    @Override
+    public String toString() {
+
+        long major = Math.abs(minorUnits / MINOR_PER_MAJOR);
+        long minor = Math.abs(minorUnits % MINOR_PER_MAJOR);
+        return (minorUnits < 0L ? "-" : "") + major + (minor < 10L ? ".0" : ".") + minor;
+    }
+}
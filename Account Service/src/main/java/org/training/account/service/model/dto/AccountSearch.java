@@ -0,0 +1,35 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.AccountType;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and position of a page of the account listing; every filter is optional.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountSearch {
+
+    private AccountStatus accountStatus;
+
+    private AccountType accountType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate openedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate openedTo;
+
+    private String cursor;
+
+    private Integer size;
+}
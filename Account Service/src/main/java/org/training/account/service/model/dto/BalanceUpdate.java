@@ -0,0 +1,20 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceUpdate {
+
+    /**
+     * Signed amount to apply: positive to credit the account, negative to debit it.
+     */
+    private BigDecimal amount;
+}
@@ -0,0 +1,11 @@
+package org.training.account.service.model.dto.external;
+
+import lombok.Data;
+
+@Data
+public class SequenceRangeDto {
+
+    private long start;
+
+    private int count;
+}
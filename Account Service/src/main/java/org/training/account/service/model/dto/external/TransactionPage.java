@@ -0,0 +1,25 @@
+package org.training.account.service.model.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of the transaction history of an account as served by the transaction service, newest transaction first.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionPage {
+
+    private List<TransactionResponse> transactions;
+
+    /**
+     * Token to pass as the cursor to fetch the next page, null on the last page.
+     */
+    private String nextCursor;
+}
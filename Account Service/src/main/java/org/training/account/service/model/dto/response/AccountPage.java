@@ -0,0 +1,26 @@
+package org.training.account.service.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.dto.AccountDto;
+
+import java.util.List;
+
+/**
+ * Page of the account listing, ordered by account ID.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountPage {
+
+    private List<AccountDto> accounts;
+
+    /**
+     * Token to pass as the cursor to fetch the next page, null on the last page.
+     */
+    private String nextCursor;
+}
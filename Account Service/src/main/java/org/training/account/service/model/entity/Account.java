@@ -8,17 +8,31 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_account_account_number", columnList = "accountNumber", unique = true),
+        @Index(name = "uk_account_user_type", columnList = "userId, accountType", unique = true),
+        @Index(name = "idx_account_status_type_id", columnList = "accountStatus, accountType, accountId"),
+        @Index(name = "idx_account_type_id", columnList = "accountType, accountId"),
+        @Index(name = "idx_account_opening_date_id", columnList = "openingDate, accountId"),
+        @Index(name = "idx_account_status_id", columnList = "accountStatus, accountId"),
+        @Index(name = "idx_account_status_opening_date_id", columnList = "accountStatus, openingDate, accountId"),
+        @Index(name = "idx_account_type_opening_date_id", columnList = "accountType, openingDate, accountId")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -43,4 +57,8 @@ public class Account {
     private BigDecimal availableBalance;
 
     private Long userId;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 }
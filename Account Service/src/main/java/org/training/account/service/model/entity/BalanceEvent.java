@@ -0,0 +1,39 @@
+package org.training.account.service.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable balance change of an event-sourced account; events are only ever inserted.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_balance_event_account_event", columnList = "accountNumber, eventId"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long eventId;
+
+    private String accountNumber;
+
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package org.training.account.service.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an event-sourced account including every event up to the last event ID.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    @Id
+    private String accountNumber;
+
+    private BigDecimal balance;
+
+    private Long lastEventId;
+
+    private LocalDateTime takenAt;
+}
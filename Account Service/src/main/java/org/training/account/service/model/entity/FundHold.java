@@ -0,0 +1,58 @@
+package org.training.account.service.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.training.account.service.model.HoldStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Amount reserved on an account: it is already taken out of the available balance and is either
+ * captured, or released back to the account when the hold is released or expires.
+ * The account credited when the hold ends is recorded with it; the credit stays pending until an account
+ * owned by the ledger engine actually received it.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_fund_hold_account_status", columnList = "accountNumber, holdStatus"),
+        @Index(name = "idx_fund_hold_status_expiry", columnList = "holdStatus, expiresAt"),
+        @Index(name = "idx_fund_hold_credit_pending", columnList = "creditPending, holdId")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FundHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long holdId;
+
+    private String accountNumber;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus holdStatus;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    private String creditAccountNumber;
+
+    private boolean creditPending;
+}
@@ -0,0 +1,24 @@
+package org.training.account.service.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last journal sequence of a ledger partition whose balance changes are committed to the account table.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+
+    @Id
+    private Integer partitionId;
+
+    private Long lastSequence;
+}
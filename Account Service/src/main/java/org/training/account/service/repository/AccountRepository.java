@@ -1,12 +1,23 @@
 package org.training.account.service.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.training.account.service.model.AccountBalanceView;
+import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
 import org.training.account.service.model.entity.Account;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account> {
 
     /**
      * Find an account by user ID and account type.
@@ -25,6 +36,14 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      */
     Optional<Account> findAccountByAccountNumber(String accountNumber);
 
+    /**
+     * Find the accounts with the given account numbers in a single query.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found, in no particular order.
+     */
+    List<Account> findAccountsByAccountNumberIn(Collection<String> accountNumbers);
+
     /**
      * Finds an account by user ID.
      *
@@ -32,4 +51,62 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return an optional account object
      */
     Optional<Account> findAccountByUserId(Long userId);
+
+    /**
+     * Applies a signed amount to the balance of an account in a single conditional update.
+     * The update only matches when the balance stays non-negative, and debits additionally require the given status.
+     * The version is bumped so that concurrent entity updates of the same account fail their optimistic check.
+     *
+     * @param accountNumber the account number of the account to update
+     * @param amount        the signed amount to apply
+     * @param debitStatus   the status the account must have for a debit
+     * @return the number of rows updated, zero when one of the conditions does not hold
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.availableBalance = a.availableBalance + :amount, a.version = a.version + 1 " +
+            "WHERE a.accountNumber = :accountNumber AND a.availableBalance + :amount >= 0 " +
+            "AND (:amount >= 0 OR a.accountStatus = :debitStatus)")
+    int applyBalanceDelta(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount,
+                          @Param("debitStatus") AccountStatus debitStatus);
+
+    /**
+     * Reads only the available balance and status of an account.
+     *
+     * @param accountNumber the account number
+     * @return the balance projection, or empty if the account does not exist
+     */
+    Optional<AccountBalanceView> findBalanceByAccountNumber(String accountNumber);
+
+    /**
+     * Closes an account in a single conditional update, provided its balance is zero.
+     *
+     * @param accountNumber the account number of the account to close
+     * @param closed        the closed status
+     * @return the number of rows updated, zero if the account does not exist or still holds a balance
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.accountStatus = :closed, a.version = a.version + 1 " +
+            "WHERE a.accountNumber = :accountNumber AND a.availableBalance = 0")
+    int closeIfEmpty(@Param("accountNumber") String accountNumber, @Param("closed") AccountStatus closed);
+
+    /**
+     * Reads the accounts after the given account ID in account ID order, seeking on the composite indexes
+     * instead of skipping rows, so every page costs the same however deep it is. Null filters match every account;
+     * they are left out of the query rather than matched with {@code IS NULL} checks, so each combination of
+     * filters is planned on its own index.
+     *
+     * @param afterAccountId the last account ID of the previous page, zero for the first page
+     * @param accountStatus  the status to match, or null
+     * @param accountType    the type to match, or null
+     * @param openedFrom     the earliest opening date, or null
+     * @param openedTo       the latest opening date, or null
+     * @param pageable       the number of accounts to read
+     * @return the accounts of the page
+     */
+    default List<Account> findPageAfter(Long afterAccountId, AccountStatus accountStatus, AccountType accountType,
+                                        LocalDate openedFrom, LocalDate openedTo, Pageable pageable) {
+
+        return findBy(AccountSpecifications.pageAfter(afterAccountId, accountStatus, accountType, openedFrom, openedTo),
+                query -> query.limit(pageable.getPageSize()).all());
+    }
 }
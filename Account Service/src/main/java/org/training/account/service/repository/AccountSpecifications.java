@@ -0,0 +1,55 @@
+package org.training.account.service.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.AccountType;
+import org.training.account.service.model.entity.Account;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria of the account listing. Only the filters that are set become predicates, so every combination of
+ * filters is its own query, planned on the index made for it rather than on one query matching them all.
+ */
+public final class AccountSpecifications {
+
+    private AccountSpecifications() {
+    }
+
+    /**
+     * Matches the accounts after the given account ID with the given filters, in account ID order.
+     *
+     * @param afterAccountId the last account ID of the previous page, zero for the first page
+     * @param accountStatus  the status to match, or null
+     * @param accountType    the type to match, or null
+     * @param openedFrom     the earliest opening date, or null
+     * @param openedTo       the latest opening date, or null
+     * @return the criteria of the page
+     */
+    public static Specification<Account> pageAfter(Long afterAccountId, AccountStatus accountStatus, AccountType accountType,
+                                                   LocalDate openedFrom, LocalDate openedTo) {
+
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (Objects.nonNull(accountStatus)) {
+                predicates.add(builder.equal(root.get("accountStatus"), accountStatus));
+            }
+            if (Objects.nonNull(accountType)) {
+                predicates.add(builder.equal(root.get("accountType"), accountType));
+            }
+            if (Objects.nonNull(openedFrom)) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("openingDate"), openedFrom));
+            }
+            if (Objects.nonNull(openedTo)) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("openingDate"), openedTo));
+            }
+            predicates.add(builder.greaterThan(root.get("accountId"), afterAccountId));
+            query.orderBy(builder.asc(root.get("accountId")));
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
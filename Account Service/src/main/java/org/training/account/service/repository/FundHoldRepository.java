@@ -0,0 +1,77 @@
+package org.training.account.service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.model.entity.FundHold;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface FundHoldRepository extends JpaRepository<FundHold, Long> {
+
+    /**
+     * Moves a hold from one status to another, only if it still has the expected status.
+     * Capturing, releasing and expiring a hold race on this update, so exactly one of them wins.
+     *
+     * @param holdId the ID of the hold
+     * @param from   the status the hold must have
+     * @param to     the new status
+     * @return the number of rows updated, zero if the hold no longer has the expected status
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FundHold h SET h.holdStatus = :to WHERE h.holdId = :holdId AND h.holdStatus = :from")
+    int transition(@Param("holdId") Long holdId, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    /**
+     * Records the account credited with the amount of a hold that ended, and whether the credit is still to be applied.
+     *
+     * @param holdId        the ID of the hold
+     * @param accountNumber the account credited
+     * @param creditPending true if the credit is applied once the transaction commits
+     * @return the number of rows updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FundHold h SET h.creditAccountNumber = :accountNumber, h.creditPending = :creditPending WHERE h.holdId = :holdId")
+    int recordCredit(@Param("holdId") Long holdId, @Param("accountNumber") String accountNumber,
+                     @Param("creditPending") boolean creditPending);
+
+    /**
+     * Deletes a hold that still has the given status.
+     *
+     * @param holdId     the ID of the hold
+     * @param holdStatus the status the hold must have
+     * @return the number of rows deleted, zero if the hold no longer has the status
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM FundHold h WHERE h.holdId = :holdId AND h.holdStatus = :holdStatus")
+    int deleteWithStatus(@Param("holdId") Long holdId, @Param("holdStatus") HoldStatus holdStatus);
+
+    /**
+     * Finds the IDs of the holds with one of the given statuses that expired before the given time.
+     *
+     * @param holdStatuses the statuses of the holds
+     * @param now          the current time
+     * @param excluded     the IDs of the holds to leave out
+     * @param pageable     limits the number of holds returned
+     * @return the IDs of the expired holds, oldest first
+     */
+    @Query("SELECT h.holdId FROM FundHold h WHERE h.holdStatus IN :holdStatuses AND h.expiresAt < :now " +
+            "AND h.holdId NOT IN :excluded ORDER BY h.expiresAt")
+    List<Long> findExpiredHoldIds(@Param("holdStatuses") Collection<HoldStatus> holdStatuses, @Param("now") LocalDateTime now,
+                                  @Param("excluded") Collection<Long> excluded, Pageable pageable);
+
+    /**
+     * Finds the IDs of the holds whose credit was not applied yet.
+     *
+     * @param excluded the IDs of the holds to leave out
+     * @param pageable limits the number of holds returned
+     * @return the IDs of the holds, oldest first
+     */
+    @Query("SELECT h.holdId FROM FundHold h WHERE h.creditPending = true AND h.holdId NOT IN :excluded ORDER BY h.holdId")
+    List<Long> findPendingCreditHoldIds(@Param("excluded") Collection<Long> excluded, Pageable pageable);
+}
@@ -1,9 +1,14 @@
 package org.training.account.service.service;
 
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountSearch;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.TransactionSearch;
+import org.training.account.service.model.dto.response.AccountPage;
+import org.training.account.service.model.dto.response.BalanceResponse;
 import org.training.account.service.model.dto.response.Response;
-import org.training.account.service.model.dto.external.TransactionResponse;
+import org.training.account.service.model.dto.external.TransactionPage;
 
 import java.util.List;
 
@@ -35,10 +40,26 @@ public interface AccountService {
     AccountDto readAccountByAccountNumber(String accountNumber);
 
     /**
-     * Updates the account with the specified account number.
+     * Lists the accounts matching the search filters one bounded page at a time.
+     *
+     * @param accountSearch the filters, the cursor of the page and its size
+     * @return the page of accounts with the cursor of the next page
+     */
+    AccountPage listAccounts(AccountSearch accountSearch);
+
+    /**
+     * Retrieves several accounts by their account numbers at once.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found; unknown account numbers are left out.
+     */
+    List<AccountDto> readAccountsByAccountNumbers(List<String> accountNumbers);
+
+    /**
+     * Updates the account with the specified account number, if it was not changed since the given version was read.
      *
      * @param accountNumber The account number of the account to be updated.
-     * @param accountDto The account data to update the account with.
+     * @param accountDto The account data to update the account with, including the version it was read at.
      * @return The response indicating the result of the update operation.
      */
     Response updateAccount(String accountNumber, AccountDto accountDto);
@@ -52,12 +73,30 @@ public interface AccountService {
     String getBalance(String accountNumber);
 
     /**
-     * Retrieves a list of transaction responses from the specified account ID.
+     * Retrieves the balance of the account with the specified account number as a number.
+     *
+     * @param accountNumber The account number for which to retrieve the balance.
+     * @return The balance of the account.
+     */
+    BalanceResponse readBalance(String accountNumber);
+
+    /**
+     * Credits or debits the balance of an account with a signed amount.
+     *
+     * @param accountNumber The account number of the account to update.
+     * @param balanceUpdate The signed amount to apply.
+     * @return The balance of the account after the update.
+     */
+    BalanceResponse updateBalance(String accountNumber, BalanceUpdate balanceUpdate);
+
+    /**
+     * Retrieves a page of the transactions of the specified account ID, newest first.
      *
-     * @param accountId The ID of the account to retrieve transactions from.
-     * @return A list of transaction responses.
+     * @param accountId         The ID of the account to retrieve transactions from.
+     * @param transactionSearch The optional filters and the cursor of the page.
+     * @return A page of transaction responses.
      */
-    List<TransactionResponse> getTransactionsFromAccountId(String accountId);
+    TransactionPage getTransactionsFromAccountId(String accountId, TransactionSearch transactionSearch);
 
     /**
      * Closes the account with the specified account number.
@@ -0,0 +1,70 @@
+package org.training.account.service.service;
+
+import org.training.account.service.model.dto.FundHoldRequest;
+import org.training.account.service.model.dto.response.FundHoldResponse;
+
+public interface FundHoldService {
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdId the ID of the hold
+     * @return the hold
+     */
+    FundHoldResponse readHold(Long holdId);
+
+    /**
+     * Places a hold on an account, taking the amount out of its available balance.
+     *
+     * @param fundHoldRequest the account and the amount to hold
+     * @return the placed hold
+     */
+    FundHoldResponse placeHold(FundHoldRequest fundHoldRequest);
+
+    /**
+     * Captures a hold, the held amount leaves the account for good.
+     *
+     * @param holdId the ID of the hold
+     * @return the captured hold
+     */
+    FundHoldResponse captureHold(Long holdId);
+
+    /**
+     * Settles a captured hold, the held amount is credited to the given account.
+     *
+     * @param holdId        the ID of the hold
+     * @param accountNumber the account to credit
+     * @return the settled hold
+     */
+    FundHoldResponse settleHold(Long holdId, String accountNumber);
+
+    /**
+     * Refunds a captured hold, the held amount is credited back to the account it was held on.
+     *
+     * @param holdId the ID of the hold
+     * @return the refunded hold
+     */
+    FundHoldResponse refundHold(Long holdId);
+
+    /**
+     * Releases a hold, the held amount is returned to the available balance.
+     *
+     * @param holdId the ID of the hold
+     * @return the released hold
+     */
+    FundHoldResponse releaseHold(Long holdId);
+
+    /**
+     * Expires a hold whose time ran out, the held amount is returned to the available balance.
+     *
+     * @param holdId the ID of the hold
+     */
+    void expireHold(Long holdId);
+
+    /**
+     * Applies the credit of a hold that ended, if it is still pending.
+     *
+     * @param holdId the ID of the hold
+     */
+    void applyPendingCredit(Long holdId);
+}
@@ -0,0 +1,135 @@
+package org.training.account.service.service.implementation;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.training.account.service.configuration.ReplicaRoutingDataSource;
+import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.response.BalanceResponse;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Local cache of account reads. Accounts are cached by account number; the user ID cache only maps a user
+ * to its account number, so a write only ever has to evict the account number it changed.
+ * An eviction requested inside a transaction is deferred until the transaction commits, so a concurrent read
+ * cannot cache the balance the transaction is about to replace. Misses are loaded from the primary database
+ * rather than the read replica, so an entry is never older than the last write evicting it.
+ */
+@Component
+public class AccountCache {
+
+    public static final String ACCOUNTS = "accounts";
+
+    public static final String ACCOUNTS_BY_USER = "accountsByUser";
+
+    public static final String BALANCES = "balances";
+
+    private final Cache accounts;
+
+    private final Cache accountsByUser;
+
+    private final Cache balances;
+
+    public AccountCache(CacheManager cacheManager) {
+
+        this.accounts = new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(ACCOUNTS)));
+        this.accountsByUser = new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(ACCOUNTS_BY_USER)));
+        this.balances = new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(BALANCES)));
+    }
+
+    /**
+     * Reads an account from the cache, loading it on a miss.
+     *
+     * @param accountNumber the account number
+     * @param loader        reads the account from the database
+     * @return the account
+     */
+    public AccountDto account(String accountNumber, Supplier<AccountDto> loader) {
+        return get(accounts, accountNumber, loader);
+    }
+
+    /**
+     * Reads the balance of an account from the cache, loading it on a miss.
+     *
+     * @param accountNumber the account number
+     * @param loader        reads the balance from the database
+     * @return the balance
+     */
+    public BalanceResponse balance(String accountNumber, Supplier<BalanceResponse> loader) {
+        return get(balances, accountNumber, loader);
+    }
+
+    /**
+     * Reads an account from the cache without loading it.
+     *
+     * @param accountNumber the account number
+     * @return the cached account, or empty on a miss
+     */
+    public Optional<AccountDto> cachedAccount(String accountNumber) {
+        return Optional.ofNullable(accounts.get(accountNumber, AccountDto.class));
+    }
+
+    /**
+     * Caches an account loaded outside of {@link #account(String, Supplier)}, which has to be read from the primary
+     * database with {@link ReplicaRoutingDataSource#readFromPrimary(Supplier)}.
+     *
+     * @param accountDto the account
+     */
+    public void put(AccountDto accountDto) {
+        accounts.putIfAbsent(accountDto.getAccountNumber(), accountDto);
+    }
+
+    /**
+     * Reads the account number of a user from the cache, loading it on a miss.
+     *
+     * @param userId the ID of the user
+     * @param loader reads the account number from the database
+     * @return the account number of the user
+     */
+    public String accountNumberOfUser(Long userId, Supplier<String> loader) {
+        return get(accountsByUser, userId, loader);
+    }
+
+    /**
+     * Evicts an account after it was written, once the surrounding transaction if any commits.
+     *
+     * @param accountNumber the account number
+     */
+    public void evict(String accountNumber) {
+
+        accounts.evict(accountNumber);
+        balances.evict(accountNumber);
+    }
+
+    /**
+     * Evicts the account number cached for a user after an account was created or moved to another user.
+     *
+     * @param userId the ID of the user
+     */
+    public void evictUser(Long userId) {
+
+        if (userId != null) {
+            accountsByUser.evict(userId);
+        }
+    }
+
+    /**
+     * Loads through the cache from the primary database, rethrowing the exceptions of the loader as they are
+     * rather than wrapped.
+     */
+    private static <T> T get(Cache cache, Object key, Supplier<T> loader) {
+
+        try {
+            return cache.get(key, () -> ReplicaRoutingDataSource.readFromPrimary(loader));
+        } catch (Cache.ValueRetrievalException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.training.account.service.service.implementation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.account.service.exception.DependencyTimeoutException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent lookups of account creation concurrently on a bounded pool, so opening an account
+ * takes as long as its slowest dependency instead of the sum of all of them.
+ * When the pool and its queue are full the stage runs on the calling thread, which degrades to the
+ * sequential behaviour instead of failing the request.
+ */
+@Slf4j
+@Component
+public class AccountCreationPipeline {
+
+    private final MeterRegistry meterRegistry;
+
+    private final long timeoutMillis;
+
+    private final ThreadPoolExecutor executor;
+
+    public AccountCreationPipeline(MeterRegistry meterRegistry,
+                                   @Value("${app.config.account-creation.threads}") int threads,
+                                   @Value("${app.config.account-creation.queue-capacity}") int queueCapacity,
+                                   @Value("${app.config.account-creation.timeout-millis}") long timeoutMillis) {
+
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "account-creation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts a stage of the account creation, timed under {@code account.creation.stage}.
+     *
+     * @param stage    the name of the stage, used to tag the metrics
+     * @param supplier the work of the stage
+     * @return completes with the result of the stage, or with a timeout once the configured timeout elapses
+     */
+    public <T> CompletableFuture<T> stage(String stage, Supplier<T> supplier) {
+        return start(stage, supplier).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a stage taking a resource, timed under {@code account.creation.stage}. A resource taken after the stage
+     * timed out is handed to {@code release}, as the caller has given up on it.
+     *
+     * @param stage    the name of the stage, used to tag the metrics
+     * @param supplier the work of the stage
+     * @param release  gives back a resource taken too late
+     * @return completes with the result of the stage, or with a timeout once the configured timeout elapses
+     */
+    public <T> CompletableFuture<T> stage(String stage, Supplier<T> supplier, Consumer<T> release) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        start(stage, supplier).whenComplete((value, exception) -> {
+            if (exception != null) {
+                result.completeExceptionally(exception);
+            } else if (!result.complete(value)) {
+                log.warn("account creation stage {} completed after it timed out, releasing its result", stage);
+                release.accept(value);
+            }
+        });
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for a stage and rethrows its failure as it would have been thrown by a direct call.
+     *
+     * @param stage the stage to wait for
+     * @return the result of the stage
+     * @throws DependencyTimeoutException if the stage did not complete within the configured timeout
+     */
+    public <T> T join(CompletableFuture<T> stage) {
+
+        try {
+            return stage.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof TimeoutException) {
+                log.error("account creation stage timed out after {} ms", timeoutMillis);
+                throw new DependencyTimeoutException("A dependency did not respond in time, please retry");
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw exception;
+        }
+    }
+
+    private <T> CompletableFuture<T> start(String stage, Supplier<T> supplier) {
+
+        Timer timer = Timer.builder("account.creation.stage")
+                .description("Time taken by a stage of the account creation")
+                .tag("stage", stage)
+                .register(meterRegistry);
+        return CompletableFuture.supplyAsync(() -> timer.record(supplier), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,150 @@
+package org.training.account.service.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.training.account.service.external.SequenceService;
+import org.training.account.service.model.dto.external.SequenceRangeDto;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local pool of account numbers reserved ahead of time from the sequence generator.
+ * The pool is topped up in the background whenever it drops below the low-water mark;
+ * numbers still pooled when the service stops are never issued.
+ */
+@Slf4j
+@Component
+public class AccountNumberBuffer {
+
+    private final SequenceService sequenceService;
+
+    private final int capacity;
+
+    private final int lowWaterMark;
+
+    private final Queue<Long> pool = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "account-number-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer refillLatency;
+
+    private final Counter synchronousFetches;
+
+    public AccountNumberBuffer(SequenceService sequenceService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.config.account-number.buffer.capacity}") int capacity,
+                               @Value("${app.config.account-number.buffer.low-water-mark}") int lowWaterMark) {
+
+        this.sequenceService = sequenceService;
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        Gauge.builder("account.number.buffer.depth", depth, AtomicInteger::get)
+                .description("Number of pre-reserved account numbers available locally")
+                .register(meterRegistry);
+        this.refillLatency = Timer.builder("account.number.buffer.refill")
+                .description("Time taken to reserve a range of account numbers from the sequence generator")
+                .register(meterRegistry);
+        this.synchronousFetches = Counter.builder("account.number.buffer.synchronous.fetches")
+                .description("Account numbers fetched synchronously because the buffer was empty")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fills the buffer once the application is up, so the first accounts do not pay for the fetch.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefill() {
+        triggerRefill();
+    }
+
+    /**
+     * Takes the next account number, falling back to a synchronous fetch when the buffer is empty.
+     *
+     * @return the next account number
+     */
+    public long next() {
+
+        Long accountNumber = pool.poll();
+        if (accountNumber != null) {
+            if (depth.decrementAndGet() < lowWaterMark) {
+                triggerRefill();
+            }
+            return accountNumber;
+        }
+
+        log.warn("account number buffer is empty, fetching the account number synchronously");
+        triggerRefill();
+        synchronousFetches.increment();
+        return sequenceService.generateAccountNumber().getAccountNumber();
+    }
+
+    /**
+     * Returns an account number that was taken but not used, so it is issued to a later account instead.
+     *
+     * @param accountNumber the unused account number
+     */
+    public void release(long accountNumber) {
+
+        pool.offer(accountNumber);
+        depth.incrementAndGet();
+    }
+
+    /**
+     * Schedules a refill unless one is already in flight.
+     */
+    private void triggerRefill() {
+
+        if (refilling.compareAndSet(false, true)) {
+            refillExecutor.execute(this::refill);
+        }
+    }
+
+    /**
+     * Tops the buffer up to its capacity with a single range reservation.
+     */
+    private void refill() {
+
+        try {
+            int missing = capacity - depth.get();
+            if (missing <= 0) {
+                return;
+            }
+            SequenceRangeDto range = refillLatency.record(() -> sequenceService.generateAccountNumbers(missing));
+            for (long offset = 0; offset < range.getCount(); offset++) {
+                pool.offer(range.getStart() + offset);
+            }
+            depth.addAndGet(range.getCount());
+            log.debug("reserved {} account numbers starting at {}", range.getCount(), range.getStart());
+        } catch (Exception exception) {
+            log.error("unable to refill the account number buffer", exception);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+}
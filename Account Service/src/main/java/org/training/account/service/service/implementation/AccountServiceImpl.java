@@ -3,28 +3,50 @@ package org.training.account.service.service.implementation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.configuration.ReplicaRoutingDataSource;
 import org.training.account.service.exception.*;
-import org.training.account.service.external.SequenceService;
+import org.training.account.service.eventsourcing.EventSourcedBalances;
 import org.training.account.service.external.TransactionService;
 import org.training.account.service.external.UserService;
+import org.training.account.service.ledger.LedgerEngine;
+import org.training.account.service.model.AccountBalanceView;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.account.service.model.Money;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountSearch;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.TransactionSearch;
+import org.training.account.service.model.dto.response.AccountPage;
+import org.training.account.service.model.dto.response.BalanceResponse;
 import org.training.account.service.model.dto.external.UserDto;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.model.entity.Account;
 import org.training.account.service.model.mapper.AccountMapper;
-import org.training.account.service.model.dto.external.TransactionResponse;
+import org.training.account.service.model.dto.external.TransactionPage;
 import org.training.account.service.repository.AccountRepository;
 import org.training.account.service.service.AccountService;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.training.account.service.model.Constants.ACC_PREFIX;
 
@@ -35,50 +57,102 @@ public class AccountServiceImpl implements AccountService {
 
     private final UserService userService;
     private final AccountRepository accountRepository;
-    private final SequenceService sequenceService;
+    private final AccountNumberBuffer accountNumberBuffer;
     private final TransactionService transactionService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final ObjectProvider<EventSourcedBalances> eventSourcedBalances;
+    private final AccountCache accountCache;
+    private final AccountCreationPipeline accountCreationPipeline;
 
     private final AccountMapper accountMapper = new AccountMapper();
 
+    private static final Money MINIMUM_BALANCE = Money.ofMajor(1000);
+
 
     @Value("${spring.application.ok}")
     private String success;
 
+    @Value("${app.config.account-lookup.max-size}")
+    private int maxLookupSize;
+
+    @Value("${app.config.account-listing.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${app.config.account-listing.max-page-size}")
+    private int maxPageSize;
+
     /**
      * Creates an account based on the provided accountDto.
+     * The user lookup, the duplicate check and the account number are fetched concurrently; the account
+     * number is taken speculatively and handed back to the buffer when the account is not created, including when
+     * saving it fails or the account number arrives after the timeout.
      *
      * @param accountDto The accountDto containing the necessary information to create an account.
      * @return The response indicating the result of the account creation.
      * @throws ResourceNotFound   If the user associated with the accountDto does not exist.
      * @throws ResourceConflict   If an account with the same userId and accountType already exists.
+     * @throws DependencyTimeoutException If a dependency did not respond within the configured timeout.
      */
     @Override
     public Response createAccount(AccountDto accountDto) {
 
-        ResponseEntity<UserDto> user = userService.readUserById(accountDto.getUserId());
-        if (Objects.isNull(user.getBody())) {
-            throw new ResourceNotFound("user not found on the server");
-        }
-
-        accountRepository.findAccountByUserIdAndAccountType(accountDto.getUserId(), AccountType.valueOf(accountDto.getAccountType()))
-                .ifPresent(account -> {
-                    log.error("Account already exists on the server");
-                    throw new ResourceConflict("Account already exists on the server");
-                });
+        AccountType accountType = AccountType.valueOf(accountDto.getAccountType());
+        CompletableFuture<UserDto> user = accountCreationPipeline.stage("user",
+                () -> userService.readUserById(accountDto.getUserId()).getBody());
+        CompletableFuture<Optional<Account>> existingAccount = accountCreationPipeline.stage("duplicate-check",
+                () -> accountRepository.findAccountByUserIdAndAccountType(accountDto.getUserId(), accountType));
+        CompletableFuture<Long> accountNumber = accountCreationPipeline.stage("account-number",
+                accountNumberBuffer::next, accountNumberBuffer::release);
 
         Account account = accountMapper.convertToEntity(accountDto);
-        account.setAccountNumber(ACC_PREFIX + String.format("%07d",sequenceService.generateAccountNumber().getAccountNumber()));
-        account.setAccountStatus(AccountStatus.PENDING);
-        account.setAvailableBalance(BigDecimal.valueOf(0));
-        account.setAccountType(AccountType.valueOf(accountDto.getAccountType()));
-        accountRepository.save(account);
+        try {
+            if (Objects.isNull(accountCreationPipeline.join(user))) {
+                throw new ResourceNotFound("user not found on the server");
+            }
+            accountCreationPipeline.join(existingAccount).ifPresent(existing -> {
+                log.error("Account already exists on the server");
+                throw new ResourceConflict("Account already exists on the server");
+            });
+            account.setAccountNumber(formatAccountNumber(accountCreationPipeline.join(accountNumber)));
+            account.setAccountStatus(AccountStatus.PENDING);
+            account.setAvailableBalance(BigDecimal.valueOf(0));
+            account.setAccountType(accountType);
+            accountRepository.save(account);
+        } catch (RuntimeException exception) {
+            accountNumber.thenAccept(this::releaseUnusedAccountNumber);
+            throw exception;
+        }
+        accountCache.evictUser(account.getUserId());
         return Response.builder()
                 .responseCode(success)
                 .message(" Account created successfully").build();
     }
 
+    private static String formatAccountNumber(long accountNumber) {
+        return ACC_PREFIX + String.format("%07d", accountNumber);
+    }
+
+    /**
+     * Hands an account number back to the buffer when the account was not created with it. A save that failed
+     * because another account already holds the number, which can only happen when the sequence issued it twice,
+     * keeps it out of the buffer.
+     */
+    private void releaseUnusedAccountNumber(long accountNumber) {
+
+        if (accountRepository.findAccountByAccountNumber(formatAccountNumber(accountNumber)).isPresent()) {
+            log.error("account number {} is already in use, it is not returned to the buffer", accountNumber);
+            return;
+        }
+        accountNumberBuffer.release(accountNumber);
+    }
+
     /**
      * Updates the status of an account.
+     * The minimum balance is checked against the balance held by the ledger or the projection for the accounts
+     * they own, as their balance column lags behind. The ledger engine is told about the new status of the
+     * accounts it owns, so it checks their debits against it.
      *
      * @param accountNumber The account number of the account to update.
      * @param accountUpdate The account status update object.
@@ -86,58 +160,224 @@ public class AccountServiceImpl implements AccountService {
      * @throws AccountStatusException   If the account is inactive or closed.
      * @throws InSufficientFunds       If the account balance is below the minimum required balance.
      * @throws ResourceNotFound        If the account could not be found.
+     * @throws ConcurrentUpdateException If the account kept being updated concurrently.
      */
     @Override
     public Response updateStatus(String accountNumber, AccountStatusUpdate accountUpdate) {
 
-        return accountRepository.findAccountByAccountNumber(accountNumber)
+        Response response = optimisticRetryExecutor.execute("updateStatus", () -> accountRepository.findAccountByAccountNumber(accountNumber)
                 .map(account -> {
                     if(account.getAccountStatus().equals(AccountStatus.ACTIVE)){
                         throw new AccountStatusException("Account is inactive/closed");
                     }
-                    if(account.getAvailableBalance().compareTo(BigDecimal.ZERO) < 0 || account.getAvailableBalance().compareTo(BigDecimal.valueOf(1000)) < 0){
+                    Money balance = ownedBalance(accountNumber).orElseGet(() -> Money.of(account.getAvailableBalance()));
+                    if(balance.compareTo(MINIMUM_BALANCE) < 0){
                         throw new InSufficientFunds("Minimum balance of Rs.1000 is required");
                     }
                     account.setAccountStatus(accountUpdate.getAccountStatus());
                     accountRepository.save(account);
                     return Response.builder().message("Account updated successfully").responseCode(success).build();
-                }).orElseThrow(() -> new ResourceNotFound("Account not on the server"));
-
+                }).orElseThrow(() -> new ResourceNotFound("Account not on the server")));
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null && ledger.owns(accountNumber)) {
+            ledger.refreshStatus(accountNumber, accountUpdate.getAccountStatus());
+        }
+        accountCache.evict(accountNumber);
+        return response;
     }
 
+    /**
+     * Retrieves an account by its account number, served from the local cache when possible.
+     * The balance of an account owned by the ledger comes from the ledger, and the balance of an event-sourced
+     * account from its projection.
+     *
+     * @param accountNumber The account number to search for.
+     * @return The account DTO.
+     * @throws ResourceNotFound If the account is not found on the server.
+     */
     @Override
+    @Transactional(readOnly = true)
     public AccountDto readAccountByAccountNumber(String accountNumber) {
 
-        return accountRepository.findAccountByAccountNumber(accountNumber)
+        AccountDto accountDto = accountCache.account(accountNumber, () -> accountRepository.findAccountByAccountNumber(accountNumber)
                 .map(account -> {
+                    AccountDto dto = accountMapper.convertToDto(account);
+                    dto.setAccountType(account.getAccountType().toString());
+                    dto.setAccountStatus(account.getAccountStatus().toString());
+                    return dto;
+                })
+                .orElseThrow(ResourceNotFound::new));
+        return withProjectedBalance(accountDto);
+    }
+
+    /**
+     * Replaces the balance column of an account owned by the ledger or event-sourced, which lags behind the
+     * ledger or is only the last snapshot of the projection, with the balance they hold. The cached DTO is
+     * copied rather than changed.
+     */
+    private AccountDto withProjectedBalance(AccountDto accountDto) {
+
+        Optional<Money> balance = ownedBalance(accountDto.getAccountNumber());
+        if (balance.isEmpty()) {
+            return accountDto;
+        }
+        AccountDto projected = new AccountDto();
+        BeanUtils.copyProperties(accountDto, projected);
+        projected.setAvailableBalance(balance.get().toBigDecimal());
+        return projected;
+    }
+
+    /**
+     * Reads the balance of an account from the ledger or from its projection, when one of them owns it.
+     *
+     * @return the balance, or empty if the balance column of the account is its balance
+     */
+    private Optional<Money> ownedBalance(String accountNumber) {
+
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null && ledger.owns(accountNumber)) {
+            return Optional.of(ledger.balance(accountNumber));
+        }
+        EventSourcedBalances balances = eventSourcedBalances.getIfAvailable();
+        if (balances != null && balances.owns(accountNumber)) {
+            return Optional.of(balances.balance(accountNumber));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieves several accounts at once. Cached accounts are served from memory and all the others
+     * are read from the primary database with a single query, as they are cached. The balances of accounts owned
+     * by the ledger or event-sourced come from the ledger or their projection.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found, in the order they were requested; unknown account numbers are left out.
+     * @throws InvalidLookupException If no or too many account numbers are requested.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AccountDto> readAccountsByAccountNumbers(List<String> accountNumbers) {
+
+        if (Objects.isNull(accountNumbers) || accountNumbers.isEmpty() || accountNumbers.size() > maxLookupSize) {
+            throw new InvalidLookupException("Between 1 and " + maxLookupSize + " account numbers can be looked up at once");
+        }
+
+        Map<String, AccountDto> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String accountNumber : new LinkedHashSet<>(accountNumbers)) {
+            accountCache.cachedAccount(accountNumber).ifPresentOrElse(
+                    accountDto -> found.put(accountNumber, accountDto), () -> missing.add(accountNumber));
+        }
+        if (!missing.isEmpty()) {
+            ReplicaRoutingDataSource.readFromPrimary(() -> accountRepository.findAccountsByAccountNumberIn(missing)).forEach(account -> {
+                AccountDto accountDto = accountMapper.convertToDto(account);
+                accountDto.setAccountType(account.getAccountType().toString());
+                accountDto.setAccountStatus(account.getAccountStatus().toString());
+                accountCache.put(accountDto);
+                found.put(accountDto.getAccountNumber(), accountDto);
+            });
+        }
+
+        return accountNumbers.stream().distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(this::withProjectedBalance)
+                .toList();
+    }
+
+    /**
+     * Lists the accounts matching the search filters in account ID order.
+     * Pages are read with a keyset seek after the account ID carried by the cursor, one row more than
+     * requested to know whether a next page exists; the cache is bypassed. The balances of accounts owned by
+     * the ledger or event-sourced come from the ledger or their projection.
+     *
+     * @param accountSearch the filters, the cursor of the page and its size
+     * @return the page of accounts with the cursor of the next page, null on the last page
+     * @throws InvalidLookupException if the page size is out of range or the cursor is malformed
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AccountPage listAccounts(AccountSearch accountSearch) {
+
+        int size = Objects.isNull(accountSearch.getSize()) ? defaultPageSize : accountSearch.getSize();
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidLookupException("Page size should be between 1 and " + maxPageSize);
+        }
+
+        List<Account> accounts = accountRepository.findPageAfter(decodeCursor(accountSearch.getCursor()),
+                accountSearch.getAccountStatus(), accountSearch.getAccountType(),
+                accountSearch.getOpenedFrom(), accountSearch.getOpenedTo(), PageRequest.ofSize(size + 1));
+        boolean hasNext = accounts.size() > size;
+        List<Account> page = hasNext ? accounts.subList(0, size) : accounts;
+
+        return AccountPage.builder()
+                .accounts(page.stream().map(account -> {
                     AccountDto accountDto = accountMapper.convertToDto(account);
                     accountDto.setAccountType(account.getAccountType().toString());
                     accountDto.setAccountStatus(account.getAccountStatus().toString());
-                    return accountDto;
-                })
-                .orElseThrow(ResourceNotFound::new);
+                    return withProjectedBalance(accountDto);
+                }).toList())
+                .nextCursor(hasNext ? encodeCursor(page.get(size - 1).getAccountId()) : null).build();
+    }
+
+    private static String encodeCursor(Long accountId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(accountId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+
+        if (Objects.isNull(cursor) || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidLookupException("Invalid cursor");
+        }
     }
 
     /**
      * Updates an account with the provided account number and account DTO.
+     * The update only applies to the version of the account the client read; a client holding an older version
+     * is refused instead of overwriting the changes made since. The balance is never taken from the DTO, it only
+     * changes through balance updates.
      *
      * @param accountNumber The account number of the account to be updated.
-     * @param accountDto    The account DTO containing the updated account information.
+     * @param accountDto    The account DTO containing the updated account information and the version it was read at.
      * @return A response indicating the success or failure of the account update.
-     * @throws AccountStatusException If the account is inactive or closed.
      * @throws ResourceNotFound      If the account is not found on the server.
+     * @throws StaleVersionException If the version is missing or the account changed since it was read.
      */
     @Override
     public Response updateAccount(String accountNumber, AccountDto accountDto) {
 
-        return accountRepository.findAccountByAccountNumber(accountDto.getAccountNumber())
-                .map(account -> {
-                    BeanUtils.copyProperties(accountDto, account);
-                    accountRepository.save(account);
-                    return Response.builder()
-                            .responseCode(success)
-                            .message("Account updated successfully").build();
-                }).orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+        if (Objects.isNull(accountDto.getVersion())) {
+            throw new StaleVersionException("The version of the account is required to update it");
+        }
+        Long[] previousUserId = new Long[1];
+        Response response;
+        try {
+            response = transactionTemplate.execute(status -> accountRepository.findAccountByAccountNumber(accountDto.getAccountNumber())
+                    .map(account -> {
+                        if (!accountDto.getVersion().equals(account.getVersion())) {
+                            throw new StaleVersionException("Account was updated since it was read, please read it again");
+                        }
+                        previousUserId[0] = account.getUserId();
+                        BeanUtils.copyProperties(accountDto, account, "accountId", "version", "availableBalance");
+                        accountRepository.saveAndFlush(account);
+                        return Response.builder()
+                                .responseCode(success)
+                                .message("Account updated successfully").build();
+                    }).orElseThrow(() -> new ResourceNotFound("Account not found on the server")));
+        } catch (OptimisticLockingFailureException exception) {
+            throw new StaleVersionException("Account was updated since it was read, please read it again");
+        }
+        accountCache.evict(accountDto.getAccountNumber());
+        if (!Objects.equals(previousUserId[0], accountDto.getUserId())) {
+            accountCache.evictUser(previousUserId[0]);
+            accountCache.evictUser(accountDto.getUserId());
+        }
+        return response;
     }
 
     /**
@@ -148,27 +388,130 @@ public class AccountServiceImpl implements AccountService {
      * @throws ResourceNotFound if the account with the given account number is not found.
      */
     @Override
+    @Transactional(readOnly = true)
     public String getBalance(String accountNumber) {
+        return readBalance(accountNumber).getAvailableBalance().toString();
+    }
+
+    /**
+     * Retrieves the balance for a given account number, served from the local cache when possible.
+     * Balances owned by the ledger or event-sourced are never cached, they are read from the ledger or
+     * the projection instead, as the balance column only catches up with them later.
+     * Only the balance columns are read on a miss.
+     *
+     * @param accountNumber The account number to retrieve the balance for.
+     * @return The balance of the account.
+     * @throws ResourceNotFound if the account with the given account number is not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BalanceResponse readBalance(String accountNumber) {
 
-        return accountRepository.findAccountByAccountNumber(accountNumber)
-                .map(account -> account.getAvailableBalance().toString())
-                .orElseThrow(ResourceNotFound::new);
+        Optional<Money> balance = ownedBalance(accountNumber);
+        if (balance.isPresent()) {
+            return BalanceResponse.builder()
+                    .accountNumber(accountNumber)
+                    .availableBalance(balance.get().toBigDecimal()).build();
+        }
+        return accountCache.balance(accountNumber, () -> accountRepository.findBalanceByAccountNumber(accountNumber)
+                .map(view -> BalanceResponse.builder()
+                        .accountNumber(accountNumber)
+                        .availableBalance(view.getAvailableBalance()).build())
+                .orElseThrow(ResourceNotFound::new));
     }
 
     /**
-     * Retrieves a list of transaction responses from the given account ID.
+     * Applies a signed amount to the balance of an account with one conditional update, so concurrent
+     * credits and debits never overwrite each other and only the updated row is locked.
+     * Accounts owned by the ledger engine are updated in memory by their ledger partition instead,
+     * and event-sourced accounts get the change appended as an event.
+     * The amount is handled as minor units and only converted back to a decimal for the database and the response.
      *
-     * @param accountId The ID of the account to retrieve transactions from
-     * @return A list of transaction responses
+     * @param accountNumber The account number of the account to update.
+     * @param balanceUpdate The signed amount to apply.
+     * @return The balance of the account after the update.
+     * @throws ResourceNotFound       If the account is not found on the server.
+     * @throws AccountStatusException If a debit is requested on an account that is not active.
+     * @throws InSufficientFunds      If a debit exceeds the available balance.
+     * @throws InvalidAmountException  If the amount is missing, zero or has more than two decimals.
      */
     @Override
-    public List<TransactionResponse> getTransactionsFromAccountId(String accountId) {
+    public BalanceResponse updateBalance(String accountNumber, BalanceUpdate balanceUpdate) {
 
-        return transactionService.getTransactionsFromAccountId(accountId);
+        Money amount = toMoney(balanceUpdate.getAmount());
+
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        EventSourcedBalances balances = eventSourcedBalances.getIfAvailable();
+        BalanceResponse balanceResponse;
+        if (ledger != null && ledger.owns(accountNumber)) {
+            balanceResponse = BalanceResponse.builder()
+                    .accountNumber(accountNumber)
+                    .availableBalance(ledger.apply(accountNumber, amount).toBigDecimal()).build();
+        } else if (balances != null && balances.owns(accountNumber)) {
+            balanceResponse = BalanceResponse.builder()
+                    .accountNumber(accountNumber)
+                    .availableBalance(balances.apply(accountNumber, amount).toBigDecimal()).build();
+        } else {
+            balanceResponse = transactionTemplate.execute(status -> applyBalanceDelta(accountNumber, amount));
+        }
+        accountCache.evict(accountNumber);
+        return balanceResponse;
+    }
+
+    private static Money toMoney(BigDecimal amount) {
+
+        if (Objects.isNull(amount) || amount.signum() == 0) {
+            throw new InvalidAmountException("Amount should be a non-zero value");
+        }
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException exception) {
+            throw new InvalidAmountException("Amount should have at most two decimals");
+        }
+    }
+
+    private BalanceResponse applyBalanceDelta(String accountNumber, Money amount) {
+
+        if (accountRepository.applyBalanceDelta(accountNumber, amount.toBigDecimal(), AccountStatus.ACTIVE) == 0) {
+            AccountBalanceView account = accountRepository.findBalanceByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+            if (amount.isNegative() && !account.getAccountStatus().equals(AccountStatus.ACTIVE)) {
+                log.error("account {} is inactive/closed, cannot debit the account", accountNumber);
+                throw new AccountStatusException("Account is inactive/closed");
+            }
+            log.error("insufficient balance in the account {}", accountNumber);
+            throw new InSufficientFunds("Insufficient balance in the account");
+        }
+
+        return BalanceResponse.builder()
+                .accountNumber(accountNumber)
+                .availableBalance(accountRepository.findBalanceByAccountNumber(accountNumber)
+                        .map(AccountBalanceView::getAvailableBalance)
+                        .orElseThrow(ResourceNotFound::new)).build();
+    }
+
+    /**
+     * Retrieves a page of the transactions of the given account ID, newest first.
+     * Only the requested page crosses the wire; the transaction service validates the filters and the cursor.
+     *
+     * @param accountId         The ID of the account to retrieve transactions from
+     * @param transactionSearch The optional filters and the cursor of the page
+     * @return A page of transaction responses
+     */
+    @Override
+    public TransactionPage getTransactionsFromAccountId(String accountId, TransactionSearch transactionSearch) {
+
+        return transactionService.getTransactionHistory(accountId, transactionSearch.getTransactionType(),
+                transactionSearch.getFromDate(), transactionSearch.getToDate(),
+                transactionSearch.getCursor(), transactionSearch.getSize());
     }
 
     /**
      * Closes the account with the specified account number.
+     * The balance check and the status change are a single conditional update, the account is only
+     * read again to report why it could not be closed. Accounts owned by the ledger engine are closed by
+     * their ledger partition, which checks the balance it holds in memory rather than the committed one,
+     * and event-sourced accounts are checked against their projected balance.
      *
      * @param accountNumber The account number of the account to be closed.
      * @return A response indicating the result of the operation.
@@ -178,21 +521,29 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Response closeAccount(String accountNumber) {
 
-        return accountRepository.findAccountByAccountNumber(accountNumber)
-                .map(account -> {
-                    if(BigDecimal.valueOf(Double.parseDouble(getBalance(accountNumber))).compareTo(BigDecimal.ZERO) != 0) {
-                        throw new AccountClosingException("Balance should be zero");
-                    }
-                    account.setAccountStatus(AccountStatus.CLOSED);
-                    return Response.builder()
-                            .message("Account closed successfully").message(success)
-                            .build();
-                }).orElseThrow(ResourceNotFound::new);
-
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        EventSourcedBalances balances = eventSourcedBalances.getIfAvailable();
+        if (ledger != null && ledger.owns(accountNumber)) {
+            ledger.close(accountNumber);
+        } else if (balances != null && balances.owns(accountNumber)) {
+            balances.close(accountNumber);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (accountRepository.closeIfEmpty(accountNumber, AccountStatus.CLOSED) == 0) {
+                    accountRepository.findBalanceByAccountNumber(accountNumber).orElseThrow(ResourceNotFound::new);
+                    throw new AccountClosingException("Balance should be zero");
+                }
+            });
+        }
+        accountCache.evict(accountNumber);
+        return Response.builder()
+                .message("Account closed successfully").message(success)
+                .build();
     }
 
     /**
      * Read the account details for a given user ID.
+     * The account number of the user and the account itself are both served from the local cache when possible.
      *
      * @param userId the ID of the user
      * @return the account details as an AccountDto object
@@ -200,17 +551,16 @@ public class AccountServiceImpl implements AccountService {
      * @throws AccountStatusException if the account is inactive or closed
      */
     @Override
+    @Transactional(readOnly = true)
     public AccountDto readAccountByUserId(Long userId) {
 
-        return accountRepository.findAccountByUserId(userId)
-                .map(account ->{
-                    if(!account.getAccountStatus().equals(AccountStatus.ACTIVE)){
-                        throw new AccountStatusException("Account is inactive/closed");
-                    }
-                    AccountDto accountDto = accountMapper.convertToDto(account);
-                    accountDto.setAccountStatus(account.getAccountStatus().toString());
-                    accountDto.setAccountType(account.getAccountType().toString());
-                    return accountDto;
-                }).orElseThrow(ResourceNotFound::new);
+        String accountNumber = accountCache.accountNumberOfUser(userId, () -> accountRepository.findAccountByUserId(userId)
+                .map(Account::getAccountNumber)
+                .orElseThrow(ResourceNotFound::new));
+        AccountDto accountDto = readAccountByAccountNumber(accountNumber);
+        if(!accountDto.getAccountStatus().equals(AccountStatus.ACTIVE.toString())){
+            throw new AccountStatusException("Account is inactive/closed");
+        }
+        return accountDto;
     }
 }
\ No newline at end of file
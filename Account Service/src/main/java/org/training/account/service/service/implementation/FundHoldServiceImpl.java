@@ -0,0 +1,368 @@
+package org.training.account.service.service.implementation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.AccountStatusException;
+import org.training.account.service.exception.GlobalException;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.InvalidAmountException;
+import org.training.account.service.exception.LedgerUnavailableException;
+import org.training.account.service.exception.ResourceConflict;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.ledger.LedgerEngine;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.model.Money;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.FundHoldRequest;
+import org.training.account.service.model.dto.response.FundHoldResponse;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.AccountService;
+import org.training.account.service.service.FundHoldService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class FundHoldServiceImpl implements FundHoldService {
+
+    private final FundHoldRepository fundHoldRepository;
+    private final AccountService accountService;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final TransactionTemplate newTransaction;
+    private final long ttlSeconds;
+
+    public FundHoldServiceImpl(FundHoldRepository fundHoldRepository,
+                               AccountService accountService,
+                               ObjectProvider<LedgerEngine> ledgerEngine,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.config.holds.ttl-seconds}") long ttlSeconds) {
+
+        this.fundHoldRepository = fundHoldRepository;
+        this.accountService = accountService;
+        this.ledgerEngine = ledgerEngine;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Places a hold on an account. The amount is taken out of the available balance with the same
+     * conditional update as a debit, in the transaction that records the hold; the debit of an event-sourced
+     * account is an event appended in that transaction. Accounts owned by the ledger engine are debited by the
+     * ledger, see {@link #placeLedgerHold(String, Money)}.
+     *
+     * @param fundHoldRequest the account and the amount to hold
+     * @return the placed hold
+     * @throws InvalidAmountException       If the amount is missing, not positive or has more than two decimals.
+     * @throws ResourceNotFound             If the account is not found on the server.
+     * @throws AccountStatusException       If the account is not active.
+     * @throws InSufficientFunds            If the amount exceeds the available balance.
+     * @throws LedgerUnavailableException   If the ledger did not acknowledge the debit; the hold is then resolved by the sweeper.
+     */
+    @Override
+    public FundHoldResponse placeHold(FundHoldRequest fundHoldRequest) {
+
+        BigDecimal amount = fundHoldRequest.getAmount();
+        if (Objects.isNull(amount) || amount.signum() <= 0) {
+            throw new InvalidAmountException("Amount should be a positive value");
+        }
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null && ledger.owns(fundHoldRequest.getAccountNumber())) {
+            return placeLedgerHold(fundHoldRequest.getAccountNumber(), toMoney(amount));
+        }
+
+        return newTransaction.execute(status -> {
+            accountService.updateBalance(fundHoldRequest.getAccountNumber(), BalanceUpdate.builder().amount(amount.negate()).build());
+            FundHold fundHold = fundHoldRepository.save(FundHold.builder()
+                    .accountNumber(fundHoldRequest.getAccountNumber())
+                    .amount(amount)
+                    .holdStatus(HoldStatus.ACTIVE)
+                    .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds)).build());
+            log.info("placed hold {} of {} on account {}", fundHold.getHoldId(), amount, fundHold.getAccountNumber());
+            return convertToResponse(fundHold);
+        });
+    }
+
+    /**
+     * Places a hold on an account owned by the ledger, which cannot take part in the transaction of the hold.
+     * The hold is recorded as pending first, then the ledger debits the account under the reference of the hold,
+     * and the hold is only activated once the debit is acknowledged. A hold whose debit is refused is deleted;
+     * a hold whose debit has an unknown outcome stays pending and is expired by the sweeper, which submits the
+     * debit again, applied at most once, and credits it back.
+     */
+    private FundHoldResponse placeLedgerHold(String accountNumber, Money amount) {
+
+        FundHold fundHold = newTransaction.execute(status -> fundHoldRepository.save(FundHold.builder()
+                .accountNumber(accountNumber)
+                .amount(amount.toBigDecimal())
+                .holdStatus(HoldStatus.PENDING)
+                .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds)).build()));
+        Long holdId = fundHold.getHoldId();
+        try {
+            ledgerEngine.getObject().apply(accountNumber, amount.negate(), reference(holdId, "place"));
+        } catch (LedgerUnavailableException exception) {
+            log.error("debit of hold {} on account {} has an unknown outcome, the hold stays pending", holdId, accountNumber);
+            throw exception;
+        } catch (GlobalException exception) {
+            newTransaction.executeWithoutResult(status -> fundHoldRepository.deleteWithStatus(holdId, HoldStatus.PENDING));
+            throw exception;
+        }
+
+        FundHold placed = newTransaction.execute(status -> transition(holdId, HoldStatus.PENDING, HoldStatus.ACTIVE));
+        log.info("placed hold {} of {} on ledger account {}", holdId, amount, accountNumber);
+        return convertToResponse(placed);
+    }
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdId the ID of the hold
+     * @return the hold
+     * @throws ResourceNotFound  If the hold is not found on the server.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FundHoldResponse readHold(Long holdId) {
+
+        return fundHoldRepository.findById(holdId)
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ResourceNotFound("Hold not found on the server"));
+    }
+
+    /**
+     * Captures an active hold. A captured hold never expires, it stays captured until it is settled or refunded.
+     *
+     * @param holdId the ID of the hold
+     * @return the captured hold
+     * @throws ResourceNotFound  If the hold is not found on the server.
+     * @throws ResourceConflict  If the hold is no longer active.
+     */
+    @Override
+    @Transactional
+    public FundHoldResponse captureHold(Long holdId) {
+
+        FundHold fundHold = transition(holdId, HoldStatus.ACTIVE, HoldStatus.CAPTURED);
+        log.info("captured hold {} on account {}", holdId, fundHold.getAccountNumber());
+        return convertToResponse(fundHold);
+    }
+
+    /**
+     * Settles a captured hold by crediting the held amount to another account, in the transaction that
+     * marks the hold settled, or once it commits for an account owned by the ledger. Settling a hold that is
+     * already settled changes nothing, so a retry never credits the amount twice; a hold is either settled or
+     * refunded, never both.
+     *
+     * @param holdId        the ID of the hold
+     * @param accountNumber the account to credit
+     * @return the settled hold
+     * @throws ResourceNotFound  If the hold or the account is not found on the server.
+     * @throws ResourceConflict  If the hold is not captured.
+     */
+    @Override
+    @Transactional
+    public FundHoldResponse settleHold(Long holdId, String accountNumber) {
+
+        Optional<FundHold> settled = holdWithStatus(holdId, HoldStatus.SETTLED);
+        if (settled.isPresent()) {
+            return convertToResponse(settled.get());
+        }
+        FundHold fundHold = transition(holdId, HoldStatus.CAPTURED, HoldStatus.SETTLED);
+        credit(fundHold, accountNumber);
+        log.info("settled hold {} of account {} into account {}", holdId, fundHold.getAccountNumber(), accountNumber);
+        return convertToResponse(fundHold);
+    }
+
+    /**
+     * Refunds a captured hold by crediting the held amount back to its account, in the transaction that
+     * marks the hold refunded, or once it commits for an account owned by the ledger. Refunding a hold that
+     * is already refunded changes nothing.
+     *
+     * @param holdId the ID of the hold
+     * @return the refunded hold
+     * @throws ResourceNotFound  If the hold is not found on the server.
+     * @throws ResourceConflict  If the hold is not captured.
+     */
+    @Override
+    @Transactional
+    public FundHoldResponse refundHold(Long holdId) {
+
+        Optional<FundHold> refunded = holdWithStatus(holdId, HoldStatus.REFUNDED);
+        if (refunded.isPresent()) {
+            return convertToResponse(refunded.get());
+        }
+        FundHold fundHold = transition(holdId, HoldStatus.CAPTURED, HoldStatus.REFUNDED);
+        credit(fundHold, fundHold.getAccountNumber());
+        log.info("refunded hold {} on account {}", holdId, fundHold.getAccountNumber());
+        return convertToResponse(fundHold);
+    }
+
+    /**
+     * Releases an active hold and returns the held amount to the available balance.
+     *
+     * @param holdId the ID of the hold
+     * @return the released hold
+     * @throws ResourceNotFound  If the hold is not found on the server.
+     * @throws ResourceConflict  If the hold is no longer active.
+     */
+    @Override
+    @Transactional
+    public FundHoldResponse releaseHold(Long holdId) {
+
+        FundHold fundHold = transition(holdId, HoldStatus.ACTIVE, HoldStatus.RELEASED);
+        credit(fundHold, fundHold.getAccountNumber());
+        log.info("released hold {} on account {}", holdId, fundHold.getAccountNumber());
+        return convertToResponse(fundHold);
+    }
+
+    /**
+     * Expires a hold, unless it was captured or released in the meantime. A hold left pending on an account owned
+     * by the ledger has its debit submitted again, which the ledger applies at most once, so it can be credited
+     * back; if the ledger refuses the debit, it was never applied and the hold is deleted.
+     *
+     * @param holdId the ID of the hold
+     * @throws LedgerUnavailableException If the ledger did not acknowledge the debit of a pending hold.
+     */
+    @Override
+    @Transactional
+    public void expireHold(Long holdId) {
+
+        FundHold fundHold = fundHoldRepository.findById(holdId).orElseThrow(ResourceNotFound::new);
+        if (fundHold.getHoldStatus() == HoldStatus.PENDING) {
+            LedgerEngine ledger = ledgerEngine.getIfAvailable();
+            if (ledger == null || !ledger.owns(fundHold.getAccountNumber())) {
+                throw new LedgerUnavailableException("Pending hold " + holdId + " can only be resolved by the ledger");
+            }
+            try {
+                ledger.apply(fundHold.getAccountNumber(), Money.of(fundHold.getAmount()).negate(), reference(holdId, "place"));
+            } catch (LedgerUnavailableException exception) {
+                throw exception;
+            } catch (GlobalException exception) {
+                fundHoldRepository.deleteWithStatus(holdId, HoldStatus.PENDING);
+                log.info("deleted pending hold {} on account {}, its debit was refused", holdId, fundHold.getAccountNumber());
+                return;
+            }
+        } else if (fundHold.getHoldStatus() != HoldStatus.ACTIVE) {
+            return;
+        }
+        if (fundHoldRepository.transition(holdId, fundHold.getHoldStatus(), HoldStatus.EXPIRED) == 1) {
+            credit(fundHold, fundHold.getAccountNumber());
+            log.info("expired hold {} on account {}", holdId, fundHold.getAccountNumber());
+        }
+    }
+
+    /**
+     * Applies the credit of a hold that ended to an account owned by the ledger. The ledger applies the credit
+     * at most once per hold, so this can be repeated until the credit is recorded as applied.
+     *
+     * @param holdId the ID of the hold
+     * @throws ResourceNotFound            If the hold is not found on the server.
+     * @throws LedgerUnavailableException  If the ledger did not acknowledge the credit.
+     */
+    @Override
+    public void applyPendingCredit(Long holdId) {
+
+        FundHold fundHold = newTransaction.execute(status -> fundHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFound("Hold not found on the server")));
+        if (!fundHold.isCreditPending()) {
+            return;
+        }
+        String accountNumber = fundHold.getCreditAccountNumber();
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger == null || !ledger.owns(accountNumber)) {
+            newTransaction.executeWithoutResult(status -> {
+                if (fundHoldRepository.recordCredit(holdId, accountNumber, false) == 1) {
+                    accountService.updateBalance(accountNumber, BalanceUpdate.builder().amount(fundHold.getAmount()).build());
+                }
+            });
+            return;
+        }
+        ledger.apply(accountNumber, Money.of(fundHold.getAmount()), reference(holdId, "credit"));
+        newTransaction.executeWithoutResult(status -> fundHoldRepository.recordCredit(holdId, accountNumber, false));
+        log.info("credited hold {} to ledger account {}", holdId, accountNumber);
+    }
+
+    /**
+     * Credits the amount of a hold that ended to an account, in the transaction that ended the hold, and records
+     * the account with the hold. An account owned by the ledger cannot take part in the transaction: its credit is
+     * recorded as pending and applied once the transaction commits, under the reference of the hold, so that a
+     * rolled back transaction never credits it and a retry never credits it twice. A credit that cannot be applied
+     * then is left to the sweeper.
+     */
+    private void credit(FundHold fundHold, String accountNumber) {
+
+        Long holdId = fundHold.getHoldId();
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger == null || !ledger.owns(accountNumber)) {
+            accountService.updateBalance(accountNumber, BalanceUpdate.builder().amount(fundHold.getAmount()).build());
+            fundHoldRepository.recordCredit(holdId, accountNumber, false);
+            return;
+        }
+        fundHoldRepository.recordCredit(holdId, accountNumber, true);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    applyPendingCredit(holdId);
+                } catch (RuntimeException exception) {
+                    log.error("unable to credit hold {} to ledger account {}, retrying with the next sweep", holdId, accountNumber, exception);
+                }
+            }
+        });
+    }
+
+    private static String reference(Long holdId, String change) {
+        return "hold-" + holdId + "-" + change;
+    }
+
+    private static Money toMoney(BigDecimal amount) {
+
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException exception) {
+            throw new InvalidAmountException("Amount should have at most two decimals");
+        }
+    }
+
+    private FundHold transition(Long holdId, HoldStatus from, HoldStatus to) {
+
+        FundHold fundHold = fundHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFound("Hold not found on the server"));
+        if (fundHoldRepository.transition(holdId, from, to) == 0) {
+            throw new ResourceConflict("Hold is no longer " + from.toString().toLowerCase());
+        }
+        fundHold.setHoldStatus(to);
+        return fundHold;
+    }
+
+    /**
+     * Finds the hold if it already has the given status.
+     */
+    private Optional<FundHold> holdWithStatus(Long holdId, HoldStatus status) {
+
+        FundHold fundHold = fundHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFound("Hold not found on the server"));
+        return fundHold.getHoldStatus() == status ? Optional.of(fundHold) : Optional.empty();
+    }
+
+    private FundHoldResponse convertToResponse(FundHold fundHold) {
+
+        return FundHoldResponse.builder()
+                .holdId(fundHold.getHoldId())
+                .accountNumber(fundHold.getAccountNumber())
+                .amount(fundHold.getAmount())
+                .holdStatus(fundHold.getHoldStatus().toString())
+                .expiresAt(fundHold.getExpiresAt()).build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.training.account.service.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.FundHoldService;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically expires the holds that were neither captured nor released in time, for instance
+ * because the transfer that placed them crashed half-way, and applies the credits of ended holds
+ * that the ledger engine did not acknowledge.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FundHoldSweeper {
+
+    private final FundHoldRepository fundHoldRepository;
+    private final FundHoldService fundHoldService;
+
+    private static final Set<HoldStatus> EXPIRING = EnumSet.of(HoldStatus.PENDING, HoldStatus.ACTIVE);
+
+    @Value("${app.config.holds.sweep-batch-size}")
+    private int batchSize;
+
+    /**
+     * Expires the overdue active and pending holds in batches, each hold in its own transaction, then applies
+     * the pending credits. A hold that cannot be expired or credited is logged and skipped, so it does not hold
+     * back the ones after it; it is left out for the rest of this sweep and retried by the next one.
+     */
+    @Scheduled(fixedDelayString = "${app.config.holds.sweep-interval-millis}")
+    public void sweep() {
+
+        expireHolds();
+        applyPendingCredits();
+    }
+
+    private void expireHolds() {
+
+        Set<Long> failed = new HashSet<>();
+        List<Long> expired;
+        do {
+            expired = fundHoldRepository.findExpiredHoldIds(EXPIRING, LocalDateTime.now(),
+                    failed, PageRequest.of(0, batchSize));
+            for (Long holdId : expired) {
+                try {
+                    fundHoldService.expireHold(holdId);
+                } catch (RuntimeException exception) {
+                    log.error("unable to expire hold {}", holdId, exception);
+                    failed.add(holdId);
+                }
+            }
+        } while (expired.size() == batchSize);
+    }
+
+    private void applyPendingCredits() {
+
+        Set<Long> failed = new HashSet<>();
+        List<Long> pending;
+        do {
+            pending = fundHoldRepository.findPendingCreditHoldIds(failed, PageRequest.of(0, batchSize));
+            for (Long holdId : pending) {
+                try {
+                    fundHoldService.applyPendingCredit(holdId);
+                } catch (RuntimeException exception) {
+                    log.error("unable to apply the credit of hold {}", holdId, exception);
+                    failed.add(holdId);
+                }
+            }
+        } while (pending.size() == batchSize);
+    }
+}
@@ -0,0 +1,95 @@
+package org.training.account.service.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.ConcurrentUpdateException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs account mutations in their own transaction and retries them when the optimistic version check fails.
+ * Every attempt re-reads the account, so the change is applied on top of the concurrent update that won;
+ * readers never wait for a lock.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.config.optimistic-retry.max-attempts}") int maxAttempts,
+                                   @Value("${app.config.optimistic-retry.backoff-millis}") long backoffMillis,
+                                   @Value("${app.config.optimistic-retry.max-backoff-millis}") long maxBackoffMillis) {
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Executes the mutation, retrying it with jittered exponential backoff on version conflicts.
+     *
+     * @param operation the name of the operation, used to tag the metrics
+     * @param mutation  reads, modifies and saves the account
+     * @return the result of the first attempt that commits
+     * @throws ConcurrentUpdateException if every attempt hit a conflicting update
+     */
+    public <T> T execute(String operation, Supplier<T> mutation) {
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> mutation.get());
+            } catch (OptimisticLockingFailureException exception) {
+                if (attempt >= maxAttempts) {
+                    counter("account.update.conflicts", operation).increment();
+                    log.error("{} failed after {} attempts because of concurrent updates", operation, attempt);
+                    throw new ConcurrentUpdateException("Account was updated concurrently, please retry");
+                }
+                counter("account.update.retries", operation).increment();
+                log.warn("{} hit a concurrent update, retrying (attempt {} of {})", operation, attempt + 1, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Sleeps for a random time up to the exponential backoff of the attempt, so conflicting callers spread out.
+     */
+    private void backoff(int attempt) {
+
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a concurrent update");
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+
+        return Counter.builder(name)
+                .description("Account mutations that hit an optimistic locking conflict")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
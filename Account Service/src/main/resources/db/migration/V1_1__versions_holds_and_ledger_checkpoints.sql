@@ -0,0 +1,36 @@
+-- Objects added before the migrations were introduced, which a database baselined at version 1 does not have yet:
+-- the version of the optimistic locking of accounts, the fund holds, the checkpoints of the ledger partitions, and
+-- the indexes of the account listing and of the hold lookups.
+
+alter table account add column version bigint default 0;
+
+create table fund_hold (
+    hold_id bigint not null auto_increment,
+    account_number varchar(255),
+    amount decimal(38,2),
+    created_at datetime(6),
+    expires_at datetime(6),
+    hold_status enum ('ACTIVE','CAPTURED','EXPIRED','RELEASED'),
+    primary key (hold_id)
+) engine=InnoDB;
+
+create table ledger_checkpoint (
+    partition_id integer not null,
+    last_sequence bigint,
+    primary key (partition_id)
+) engine=InnoDB;
+
+create index idx_account_status_type_id
+    on account (account_status, account_type, account_id);
+
+create index idx_account_type_id
+    on account (account_type, account_id);
+
+create index idx_account_opening_date_id
+    on account (opening_date, account_id);
+
+create index idx_fund_hold_account_status
+    on fund_hold (account_number, hold_status);
+
+create index idx_fund_hold_status_expiry
+    on fund_hold (hold_status, expires_at);
@@ -0,0 +1,12 @@
+-- Schema as created by Hibernate before the migrations were introduced; existing databases are baselined at this version.
+
+create table account (
+    account_id bigint not null auto_increment,
+    account_number varchar(255),
+    account_status enum ('ACTIVE','BLOCKED','CLOSED','PENDING'),
+    account_type enum ('FIXED_DEPOSIT','LOAN_ACCOUNT','SAVINGS_ACCOUNT'),
+    available_balance decimal(38,2),
+    opening_date date,
+    user_id bigint,
+    primary key (account_id)
+) engine=InnoDB;
@@ -0,0 +1,7 @@
+-- Indexes backing the account lookups by account number and by user, which otherwise scan the whole table.
+
+create unique index uk_account_account_number
+    on account (account_number);
+
+create unique index uk_account_user_type
+    on account (user_id, account_type);
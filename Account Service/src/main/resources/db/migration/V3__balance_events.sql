@@ -0,0 +1,20 @@
+-- Append-only balance events and the snapshots the event-sourced balances are rebuilt from.
+
+create table balance_event (
+    event_id bigint not null auto_increment,
+    account_number varchar(255),
+    amount decimal(38,2),
+    created_at datetime(6),
+    primary key (event_id)
+) engine=InnoDB;
+
+create table balance_snapshot (
+    account_number varchar(255) not null,
+    balance decimal(38,2),
+    last_event_id bigint,
+    taken_at datetime(6),
+    primary key (account_number)
+) engine=InnoDB;
+
+create index idx_balance_event_account_event
+    on balance_event (account_number, event_id);
@@ -0,0 +1,4 @@
+-- A captured hold is either settled into the destination account of its transfer or refunded to its own account.
+
+alter table fund_hold
+    modify hold_status enum ('ACTIVE','CAPTURED','EXPIRED','REFUNDED','RELEASED','SETTLED');
@@ -0,0 +1,12 @@
+-- Indexes of the account listing filter combinations that had none ending in account_id, so each of them seeks
+-- to the cursor and reads its page in account ID order: the status alone, and the status or the type together
+-- with an opening date range.
+
+create index idx_account_status_id
+    on account (account_status, account_id);
+
+create index idx_account_status_opening_date_id
+    on account (account_status, opening_date, account_id);
+
+create index idx_account_type_opening_date_id
+    on account (account_type, opening_date, account_id);
@@ -0,0 +1,19 @@
+-- Holds on accounts owned by the ledger engine. A hold is placed in the pending status before the ledger debits
+-- its account, and the account credited when a hold ends is recorded with the hold, the credit staying pending
+-- until the ledger applied it. The ledger records the reference of every change made for a hold together with
+-- the balances it commits, so a change submitted again is never applied twice.
+
+alter table fund_hold
+    modify hold_status enum ('ACTIVE','CAPTURED','EXPIRED','PENDING','REFUNDED','RELEASED','SETTLED');
+
+alter table fund_hold add column credit_account_number varchar(255);
+alter table fund_hold add column credit_pending bit not null default 0;
+
+create index idx_fund_hold_credit_pending
+    on fund_hold (credit_pending, hold_id);
+
+create table ledger_reference (
+    reference varchar(64) not null,
+    applied_at datetime(6),
+    primary key (reference)
+) engine=InnoDB;
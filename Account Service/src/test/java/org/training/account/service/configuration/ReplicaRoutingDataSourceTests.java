@@ -0,0 +1,92 @@
+package org.training.account.service.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = new ReplicaRoutingDataSource(primary, replica, new SimpleMeterRegistry());
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.clearPin();
+    }
+
+    @Test
+    void readsFromTheReplicaInReadOnlyTransactions() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void readsTheWritesOfTheRequestFromThePrimaryUntilTheRequestCompletes() throws SQLException {
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        ReplicaRoutingDataSource.clearPin();
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void readsFromThePrimaryOnlyForTheGivenRead() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, ReplicaRoutingDataSource.readFromPrimary(this::connection));
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void keepsThePinOfARequestThatWroteAfterAReadFromThePrimary() throws SQLException {
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReplicaRoutingDataSource.readFromPrimary(this::connection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    private Connection connection() {
+
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.training.account.service.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.training.account.service.model.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheForcedEntriesAfterTheCheckpointInOrder() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(1, "0600000001", Money.ofMinor(10_000)));
+            journal.append(new LedgerEntry(2, "0600000002", Money.ofMinor(-5)));
+            journal.append(new LedgerEntry(3, "0600000001", Money.ofMinor(-2_550)));
+            journal.force();
+        }
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        long lastSequence;
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            lastSequence = journal.replay(1, replayed::add);
+        }
+
+        assertEquals(3, lastSequence);
+        assertEquals(2, replayed.size());
+        assertEquals(2, replayed.get(0).getSequence());
+        assertEquals("0600000002", replayed.get(0).getAccountNumber());
+        assertEquals(Money.ofMinor(-5), replayed.get(0).getAmount());
+        assertEquals(3, replayed.get(1).getSequence());
+        assertEquals(Money.ofMinor(-2_550), replayed.get(1).getAmount());
+    }
+
+    @Test
+    void keepsTheCheckpointWhenEveryEntryIsCommitted() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(4, "0600000001", Money.ofMinor(100)));
+            journal.force();
+
+            List<LedgerEntry> replayed = new ArrayList<>();
+            assertEquals(7, journal.replay(7, replayed::add));
+            assertTrue(replayed.isEmpty());
+        }
+    }
+
+    @Test
+    void doesNotReplayEntriesThatWereNeverForced() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(1, "0600000001", Money.ofMinor(100)));
+            journal.force();
+            journal.append(new LedgerEntry(2, "0600000001", Money.ofMinor(200)));
+        }
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(1, journal.replay(0, replayed::add));
+        }
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    void stopsAtARecordTornByACrash() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(1, "0600000001", Money.ofMinor(100)));
+            journal.force();
+        }
+        long intact = Files.size(path);
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(2, "0600000001", Money.ofMinor(200)));
+            journal.force();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 3);
+        }
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(1, journal.replay(0, replayed::add));
+        }
+        assertEquals(1, replayed.size());
+        assertTrue(Files.size(path) > intact);
+    }
+
+    @Test
+    void stopsAtARecordWithABadChecksum() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(1, "0600000001", Money.ofMinor(100)));
+            journal.append(new LedgerEntry(2, "0600000001", Money.ofMinor(200)));
+            journal.append(new LedgerEntry(3, "0600000001", Money.ofMinor(300)));
+            journal.force();
+        }
+        byte[] content = Files.readAllBytes(path);
+        int recordBytes = content.length / 3;
+        content[recordBytes + recordBytes - 1] ^= 0x01;
+        Files.write(path, content);
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(1, journal.replay(0, replayed::add));
+        }
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    void replaysNothingOnceReset() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(1, "0600000001", Money.ofMinor(100)));
+            journal.force();
+            journal.reset();
+            journal.append(new LedgerEntry(2, "0600000001", Money.ofMinor(200)));
+            journal.force();
+        }
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(2, journal.replay(0, replayed::add));
+        }
+        assertEquals(1, replayed.size());
+        assertEquals(Money.ofMinor(200), replayed.get(0).getAmount());
+    }
+
+    @Test
+    void replaysTheReferencesOfTheEntries() throws IOException {
+
+        Path path = directory.resolve("ledger-0.wal");
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(payload)) {
+            output.writeLong(1);
+            output.writeUTF("0600000001");
+            output.writeUTF("1.00");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(path))) {
+            output.writeInt(payload.size());
+            output.writeInt((int) crc.getValue());
+            output.write(payload.toByteArray());
+        }
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(new LedgerEntry(2, "0600000001", Money.ofMinor(-100), "hold-7-place"));
+            journal.append(new LedgerEntry(3, "0600000001", Money.ofMinor(100)));
+            journal.force();
+        }
+
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(3, journal.replay(0, replayed::add));
+        }
+        assertEquals(3, replayed.size());
+        assertNull(replayed.get(0).getReference());
+        assertEquals(Money.ofMinor(100), replayed.get(0).getAmount());
+        assertEquals("hold-7-place", replayed.get(1).getReference());
+        assertNull(replayed.get(2).getReference());
+    }
+}
@@ -0,0 +1,83 @@
+package org.training.account.service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTests {
+
+    @Test
+    void convertsDecimalsToMinorUnits() {
+
+        assertEquals(1_050, Money.of(new BigDecimal("10.5")).getMinorUnits());
+        assertEquals(1_005, Money.of(new BigDecimal("10.05")).getMinorUnits());
+        assertEquals(-1, Money.of(new BigDecimal("-0.01")).getMinorUnits());
+        assertEquals(200, Money.of(new BigDecimal("2")).getMinorUnits());
+        assertEquals(200, Money.of(new BigDecimal("2.000")).getMinorUnits());
+        assertEquals(1_500, Money.ofMajor(15).getMinorUnits());
+    }
+
+    @Test
+    void refusesToRoundAmountsWithMoreThanTwoDecimals() {
+
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.005")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void refusesAmountsOutOfRange() {
+
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("92233720368547758.08")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMajor(Long.MAX_VALUE / 100 + 1));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    void addsAndSubtractsExactly() {
+
+        Money balance = Money.ZERO;
+        for (int deposit = 0; deposit < 10; deposit++) {
+            balance = balance.plus(Money.of(new BigDecimal("0.10")));
+        }
+
+        assertEquals(Money.ofMajor(1), balance);
+        assertEquals(Money.of(new BigDecimal("-0.30")), Money.of(new BigDecimal("0.70")).minus(Money.ofMajor(1)));
+        assertEquals(Money.of(new BigDecimal("12.05")), Money.of(new BigDecimal("-12.05")).negate());
+    }
+
+    @Test
+    void comparesBySignAndValue() {
+
+        assertTrue(Money.ofMinor(-1).isNegative());
+        assertEquals(-1, Money.ofMinor(-1).signum());
+        assertEquals(0, Money.ZERO.signum());
+        assertTrue(Money.ofMinor(99).compareTo(Money.ofMajor(1)) < 0);
+        assertEquals(Money.of(new BigDecimal("1.0")).hashCode(), Money.ofMinor(100).hashCode());
+        assertSame(Money.ZERO, Money.ofMinor(0));
+    }
+
+    @Test
+    void formatsWithTwoDecimals() {
+
+        assertEquals("12.05", Money.ofMinor(1_205).toString());
+        assertEquals("-12.50", Money.ofMinor(-1_250).toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("-92233720368547758.08", Money.ofMinor(Long.MIN_VALUE).toString());
+    }
+
+    @Test
+    void convertsBackToDecimalsWithTwoDecimals() {
+
+        assertEquals(new BigDecimal("10.50"), Money.of(new BigDecimal("10.5")).toBigDecimal());
+        assertEquals(new BigDecimal("-0.01"), Money.ofMinor(-1).toBigDecimal());
+        assertEquals(new BigDecimal("0.00"), Money.ZERO.toBigDecimal());
+    }
+}
@@ -0,0 +1,110 @@
+package org.training.account.service.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.training.account.service.model.AccountBalanceView;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.AccountType;
+import org.training.account.service.model.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accounts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class AccountRepositoryTests {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void appliesADebitCoveredByTheBalance() {
+
+        save("0600000001", AccountStatus.ACTIVE, "100.00");
+
+        assertEquals(1, accountRepository.applyBalanceDelta("0600000001", new BigDecimal("-100.00"), AccountStatus.ACTIVE));
+        assertEquals(new BigDecimal("0.00"), balance("0600000001"));
+    }
+
+    @Test
+    void rejectsADebitOverdrawingTheAccount() {
+
+        save("0600000001", AccountStatus.ACTIVE, "100.00");
+
+        assertEquals(0, accountRepository.applyBalanceDelta("0600000001", new BigDecimal("-100.01"), AccountStatus.ACTIVE));
+        assertEquals(new BigDecimal("100.00"), balance("0600000001"));
+    }
+
+    @Test
+    void rejectsADebitOfAnInactiveAccountButNotACredit() {
+
+        save("0600000001", AccountStatus.BLOCKED, "100.00");
+
+        assertEquals(0, accountRepository.applyBalanceDelta("0600000001", new BigDecimal("-10.00"), AccountStatus.ACTIVE));
+        assertEquals(1, accountRepository.applyBalanceDelta("0600000001", new BigDecimal("10.00"), AccountStatus.ACTIVE));
+        assertEquals(new BigDecimal("110.00"), balance("0600000001"));
+    }
+
+    @Test
+    void readsThePageAfterTheLastAccountOfThePreviousPage() {
+
+        Long first = save("0600000001", AccountStatus.ACTIVE, "0.00").getAccountId();
+        Long second = save("0600000002", AccountStatus.ACTIVE, "0.00").getAccountId();
+        Long third = save("0600000003", AccountStatus.ACTIVE, "0.00").getAccountId();
+
+        List<Account> page = accountRepository.findPageAfter(0L, null, null, null, null, PageRequest.ofSize(2));
+        assertEquals(List.of(first, second), accountIds(page));
+        page = accountRepository.findPageAfter(second, null, null, null, null, PageRequest.ofSize(2));
+        assertEquals(List.of(third), accountIds(page));
+        assertTrue(accountRepository.findPageAfter(third, null, null, null, null, PageRequest.ofSize(2)).isEmpty());
+    }
+
+    @Test
+    void readsOnlyTheAccountsMatchingTheFilters() {
+
+        Long first = save("0600000001", AccountStatus.ACTIVE, "0.00").getAccountId();
+        save("0600000002", AccountStatus.BLOCKED, "0.00");
+        Long third = save("0600000003", AccountStatus.ACTIVE, "0.00").getAccountId();
+
+        assertEquals(List.of(first, third), accountIds(accountRepository.findPageAfter(0L, AccountStatus.ACTIVE,
+                AccountType.SAVINGS_ACCOUNT, LocalDate.now().minusDays(1), LocalDate.now(), PageRequest.ofSize(10))));
+        assertEquals(List.of(third), accountIds(accountRepository.findPageAfter(first, AccountStatus.ACTIVE,
+                null, null, null, PageRequest.ofSize(10))));
+        assertTrue(accountRepository.findPageAfter(0L, null, AccountType.LOAN_ACCOUNT, null, null,
+                PageRequest.ofSize(10)).isEmpty());
+    }
+
+    private static List<Long> accountIds(List<Account> accounts) {
+        return accounts.stream().map(Account::getAccountId).toList();
+    }
+
+    private Account save(String accountNumber, AccountStatus accountStatus, String availableBalance) {
+
+        return accountRepository.saveAndFlush(Account.builder()
+                .accountNumber(accountNumber)
+                .accountType(AccountType.SAVINGS_ACCOUNT)
+                .accountStatus(accountStatus)
+                .availableBalance(new BigDecimal(availableBalance))
+                .userId(Long.valueOf(accountNumber.substring(2))).build());
+    }
+
+    private BigDecimal balance(String accountNumber) {
+
+        return accountRepository.findBalanceByAccountNumber(accountNumber)
+                .map(AccountBalanceView::getAvailableBalance)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,81 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.training.account.service.model.dto.AccountDto;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountCacheTests {
+
+    private static final String ACCOUNT_NUMBER = "0600000001";
+
+    private final AccountCache accountCache = new AccountCache(new ConcurrentMapCacheManager(
+            AccountCache.ACCOUNTS, AccountCache.ACCOUNTS_BY_USER, AccountCache.BALANCES));
+
+    @AfterEach
+    void tearDown() {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsAnAccountOnlyOnAMiss() {
+
+        accountCache.account(ACCOUNT_NUMBER, () -> account("100.00"));
+
+        assertEquals(new BigDecimal("100.00"),
+                accountCache.account(ACCOUNT_NUMBER, () -> account("200.00")).getAvailableBalance());
+    }
+
+    @Test
+    void evictsAnAccountOnceTheTransactionCommits() {
+
+        accountCache.account(ACCOUNT_NUMBER, () -> account("100.00"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        accountCache.evict(ACCOUNT_NUMBER);
+
+        assertTrue(accountCache.cachedAccount(ACCOUNT_NUMBER).isPresent());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(accountCache.cachedAccount(ACCOUNT_NUMBER).isEmpty());
+    }
+
+    @Test
+    void keepsAnAccountWhenTheTransactionRollsBack() {
+
+        accountCache.account(ACCOUNT_NUMBER, () -> account("100.00"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        accountCache.evict(ACCOUNT_NUMBER);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(new BigDecimal("100.00"), accountCache.cachedAccount(ACCOUNT_NUMBER).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void evictsAnAccountWrittenOutsideOfATransactionRightAway() {
+
+        accountCache.account(ACCOUNT_NUMBER, () -> account("100.00"));
+
+        accountCache.evict(ACCOUNT_NUMBER);
+
+        assertTrue(accountCache.cachedAccount(ACCOUNT_NUMBER).isEmpty());
+    }
+
+    private static AccountDto account(String availableBalance) {
+
+        return AccountDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .availableBalance(new BigDecimal(availableBalance)).build();
+    }
+}
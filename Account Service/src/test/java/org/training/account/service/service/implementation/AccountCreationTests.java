@@ -0,0 +1,134 @@
+package org.training.account.service.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.DependencyTimeoutException;
+import org.training.account.service.exception.ResourceConflict;
+import org.training.account.service.external.TransactionService;
+import org.training.account.service.external.UserService;
+import org.training.account.service.model.AccountType;
+import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.external.UserDto;
+import org.training.account.service.model.entity.Account;
+import org.training.account.service.repository.AccountRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountCreationTests {
+
+    private static final long ACCOUNT_NUMBER = 42;
+
+    private final UserService userService = mock(UserService.class);
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    private final AccountNumberBuffer accountNumberBuffer = mock(AccountNumberBuffer.class);
+
+    private final AccountCreationPipeline accountCreationPipeline =
+            new AccountCreationPipeline(new SimpleMeterRegistry(), 4, 16, 200);
+
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        when(userService.readUserById(1L)).thenReturn(ResponseEntity.ok(UserDto.builder().userId(1L).build()));
+        when(accountRepository.findAccountByUserIdAndAccountType(1L, AccountType.SAVINGS_ACCOUNT)).thenReturn(Optional.empty());
+        when(accountRepository.findAccountByAccountNumber(any())).thenReturn(Optional.empty());
+        when(accountNumberBuffer.next()).thenReturn(ACCOUNT_NUMBER);
+
+        accountService = new AccountServiceImpl(userService, accountRepository, accountNumberBuffer,
+                mock(TransactionService.class), mock(OptimisticRetryExecutor.class), mock(TransactionTemplate.class),
+                mock(ObjectProvider.class), mock(ObjectProvider.class),
+                new AccountCache(new ConcurrentMapCacheManager(AccountCache.ACCOUNTS, AccountCache.ACCOUNTS_BY_USER, AccountCache.BALANCES)),
+                accountCreationPipeline);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountCreationPipeline.shutdown();
+    }
+
+    @Test
+    void keepsTheAccountNumberOfACreatedAccount() {
+
+        accountService.createAccount(account());
+
+        verify(accountRepository).save(any(Account.class));
+        verify(accountNumberBuffer, never()).release(anyLong());
+    }
+
+    @Test
+    void releasesTheAccountNumberOfAnAccountThatAlreadyExists() {
+
+        when(accountRepository.findAccountByUserIdAndAccountType(1L, AccountType.SAVINGS_ACCOUNT))
+                .thenReturn(Optional.of(new Account()));
+
+        assertThrows(ResourceConflict.class, () -> accountService.createAccount(account()));
+
+        verify(accountNumberBuffer, timeout(1000)).release(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void releasesTheAccountNumberWhenTheAccountCannotBeSaved() {
+
+        when(accountRepository.save(any(Account.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> accountService.createAccount(account()));
+
+        verify(accountNumberBuffer).release(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void keepsAnAccountNumberAlreadyHeldByAnotherAccount() {
+
+        when(accountRepository.save(any(Account.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(accountRepository.findAccountByAccountNumber("0600140000042")).thenReturn(Optional.of(new Account()));
+
+        assertThrows(DataIntegrityViolationException.class, () -> accountService.createAccount(account()));
+
+        verify(accountNumberBuffer, never()).release(anyLong());
+    }
+
+    @Test
+    void releasesAnAccountNumberTakenAfterTheTimeout() {
+
+        CountDownLatch timedOut = new CountDownLatch(1);
+        when(accountNumberBuffer.next()).thenAnswer(invocation -> {
+            timedOut.await(5, TimeUnit.SECONDS);
+            return ACCOUNT_NUMBER;
+        });
+
+        assertThrows(DependencyTimeoutException.class, () -> accountService.createAccount(account()));
+        timedOut.countDown();
+
+        verify(accountNumberBuffer, timeout(1000)).release(ACCOUNT_NUMBER);
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    private static AccountDto account() {
+
+        return AccountDto.builder()
+                .userId(1L)
+                .accountType(AccountType.SAVINGS_ACCOUNT.toString()).build();
+    }
+}
@@ -0,0 +1,272 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.LedgerUnavailableException;
+import org.training.account.service.exception.ResourceConflict;
+import org.training.account.service.ledger.LedgerEngine;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.model.Money;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.FundHoldRequest;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FundHoldServiceImplTests {
+
+    private static final String LEDGER_ACCOUNT = "0600000001";
+
+    private static final String ACCOUNT = "0600000002";
+
+    private final Map<Long, FundHold> holds = new HashMap<>();
+
+    private final FundHoldRepository fundHoldRepository = mock(FundHoldRepository.class);
+
+    private final AccountService accountService = mock(AccountService.class);
+
+    private final LedgerEngine ledger = mock(LedgerEngine.class);
+
+    private FundHoldServiceImpl fundHoldService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        when(fundHoldRepository.save(any(FundHold.class))).thenAnswer(invocation -> {
+            FundHold fundHold = invocation.getArgument(0);
+            fundHold.setHoldId((long) holds.size() + 1);
+            holds.put(fundHold.getHoldId(), copy(fundHold));
+            return fundHold;
+        });
+        when(fundHoldRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(holds.get(invocation.<Long>getArgument(0))).map(FundHoldServiceImplTests::copy));
+        when(fundHoldRepository.transition(anyLong(), any(HoldStatus.class), any(HoldStatus.class))).thenAnswer(invocation -> {
+            FundHold fundHold = holds.get(invocation.<Long>getArgument(0));
+            if (fundHold == null || fundHold.getHoldStatus() != invocation.getArgument(1)) {
+                return 0;
+            }
+            fundHold.setHoldStatus(invocation.getArgument(2));
+            return 1;
+        });
+        when(fundHoldRepository.recordCredit(anyLong(), anyString(), anyBoolean())).thenAnswer(invocation -> {
+            FundHold fundHold = holds.get(invocation.<Long>getArgument(0));
+            fundHold.setCreditAccountNumber(invocation.getArgument(1));
+            fundHold.setCreditPending(invocation.getArgument(2));
+            return 1;
+        });
+        when(fundHoldRepository.deleteWithStatus(anyLong(), any(HoldStatus.class))).thenAnswer(invocation ->
+                holds.remove(invocation.<Long>getArgument(0)) == null ? 0 : 1);
+
+        when(ledger.owns(LEDGER_ACCOUNT)).thenReturn(true);
+        ObjectProvider<LedgerEngine> ledgerEngine = mock(ObjectProvider.class);
+        when(ledgerEngine.getIfAvailable()).thenReturn(ledger);
+        when(ledgerEngine.getObject()).thenReturn(ledger);
+
+        fundHoldService = new FundHoldServiceImpl(fundHoldRepository, accountService, ledgerEngine,
+                mock(PlatformTransactionManager.class), 300);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void placesAndReleasesAHold() {
+
+        Long holdId = fundHoldService.placeHold(request(ACCOUNT, "100.00")).getHoldId();
+
+        assertEquals(HoldStatus.ACTIVE, holds.get(holdId).getHoldStatus());
+        verify(accountService).updateBalance(ACCOUNT, credit("-100.00"));
+        fundHoldService.releaseHold(holdId);
+
+        assertEquals(HoldStatus.RELEASED, holds.get(holdId).getHoldStatus());
+        verify(accountService).updateBalance(ACCOUNT, credit("100.00"));
+        assertThrows(ResourceConflict.class, () -> fundHoldService.releaseHold(holdId));
+        assertThrows(ResourceConflict.class, () -> fundHoldService.captureHold(holdId));
+    }
+
+    @Test
+    void settlesACapturedHoldOnlyOnce() {
+
+        Long holdId = fundHoldService.placeHold(request(ACCOUNT, "100.00")).getHoldId();
+        assertThrows(ResourceConflict.class, () -> fundHoldService.settleHold(holdId, LEDGER_ACCOUNT));
+        fundHoldService.captureHold(holdId);
+
+        fundHoldService.settleHold(holdId, "0600000003");
+        fundHoldService.settleHold(holdId, "0600000003");
+
+        assertEquals(HoldStatus.SETTLED, holds.get(holdId).getHoldStatus());
+        verify(accountService, times(1)).updateBalance("0600000003", credit("100.00"));
+        assertThrows(ResourceConflict.class, () -> fundHoldService.refundHold(holdId));
+        verify(accountService, never()).updateBalance(ACCOUNT, credit("100.00"));
+    }
+
+    @Test
+    void refundsACapturedHoldOnlyOnce() {
+
+        Long holdId = fundHoldService.placeHold(request(ACCOUNT, "100.00")).getHoldId();
+        fundHoldService.captureHold(holdId);
+        fundHoldService.refundHold(holdId);
+        fundHoldService.refundHold(holdId);
+
+        assertEquals(HoldStatus.REFUNDED, holds.get(holdId).getHoldStatus());
+        verify(accountService, times(1)).updateBalance(ACCOUNT, credit("100.00"));
+        assertThrows(ResourceConflict.class, () -> fundHoldService.settleHold(holdId, "0600000003"));
+        verify(accountService, never()).updateBalance(eq("0600000003"), any());
+    }
+
+    @Test
+    void expiresAnActiveHoldButNotACapturedOne() {
+
+        Long active = fundHoldService.placeHold(request(ACCOUNT, "100.00")).getHoldId();
+        Long captured = fundHoldService.placeHold(request(ACCOUNT, "20.00")).getHoldId();
+        fundHoldService.captureHold(captured);
+
+        fundHoldService.expireHold(active);
+        fundHoldService.expireHold(active);
+        fundHoldService.expireHold(captured);
+
+        assertEquals(HoldStatus.EXPIRED, holds.get(active).getHoldStatus());
+        assertEquals(HoldStatus.CAPTURED, holds.get(captured).getHoldStatus());
+        verify(accountService, times(1)).updateBalance(ACCOUNT, credit("100.00"));
+        verify(accountService, never()).updateBalance(ACCOUNT, credit("20.00"));
+        assertThrows(ResourceConflict.class, () -> fundHoldService.captureHold(active));
+    }
+
+    @Test
+    void transfersOutOfALedgerAccount() {
+
+        Long holdId = fundHoldService.placeHold(request(LEDGER_ACCOUNT, "100.00")).getHoldId();
+
+        verify(ledger).apply(LEDGER_ACCOUNT, Money.ofMajor(-100), "hold-1-place");
+        assertEquals(HoldStatus.ACTIVE, holds.get(holdId).getHoldStatus());
+        fundHoldService.captureHold(holdId);
+        fundHoldService.settleHold(holdId, ACCOUNT);
+        fundHoldService.settleHold(holdId, ACCOUNT);
+
+        assertEquals(HoldStatus.SETTLED, holds.get(holdId).getHoldStatus());
+        verify(accountService, times(1)).updateBalance(ACCOUNT, credit("100.00"));
+        verify(accountService, never()).updateBalance(eq(LEDGER_ACCOUNT), any());
+        assertFalse(holds.get(holdId).isCreditPending());
+    }
+
+    @Test
+    void deletesAHoldWhoseLedgerDebitIsRefused() {
+
+        when(ledger.apply(eq(LEDGER_ACCOUNT), any(Money.class), anyString()))
+                .thenThrow(new InSufficientFunds("Insufficient balance in the account"));
+
+        assertThrows(InSufficientFunds.class, () -> fundHoldService.placeHold(request(LEDGER_ACCOUNT, "100.00")));
+
+        verify(fundHoldRepository).deleteWithStatus(1L, HoldStatus.PENDING);
+        assertTrue(holds.isEmpty());
+    }
+
+    @Test
+    void expiresAHoldLeftPendingByALedgerDebitWithAnUnknownOutcome() {
+
+        when(ledger.apply(LEDGER_ACCOUNT, Money.ofMajor(-100), "hold-1-place"))
+                .thenThrow(new LedgerUnavailableException("Ledger is busy, please retry"))
+                .thenReturn(Money.ZERO);
+
+        assertThrows(LedgerUnavailableException.class, () -> fundHoldService.placeHold(request(LEDGER_ACCOUNT, "100.00")));
+        assertEquals(HoldStatus.PENDING, holds.get(1L).getHoldStatus());
+        fundHoldService.expireHold(1L);
+        commit();
+
+        assertEquals(HoldStatus.EXPIRED, holds.get(1L).getHoldStatus());
+        verify(ledger, times(2)).apply(LEDGER_ACCOUNT, Money.ofMajor(-100), "hold-1-place");
+        verify(ledger).apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit");
+        assertFalse(holds.get(1L).isCreditPending());
+    }
+
+    @Test
+    void creditsALedgerAccountOnlyOnceTheHoldTransactionCommits() {
+
+        Long holdId = fundHoldService.placeHold(request(LEDGER_ACCOUNT, "100.00")).getHoldId();
+        fundHoldService.captureHold(holdId);
+        fundHoldService.refundHold(holdId);
+
+        verify(ledger, never()).apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit");
+        assertTrue(holds.get(holdId).isCreditPending());
+        commit();
+
+        verify(ledger).apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit");
+        assertFalse(holds.get(holdId).isCreditPending());
+        fundHoldService.applyPendingCredit(holdId);
+        verify(ledger, times(1)).apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit");
+    }
+
+    @Test
+    void leavesACreditTheLedgerDidNotAcknowledgeToTheSweeper() {
+
+        Long holdId = fundHoldService.placeHold(request(LEDGER_ACCOUNT, "100.00")).getHoldId();
+        fundHoldService.releaseHold(holdId);
+        when(ledger.apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit"))
+                .thenThrow(new LedgerUnavailableException("Ledger is busy, please retry"))
+                .thenReturn(Money.ofMajor(100));
+        commit();
+
+        assertTrue(holds.get(holdId).isCreditPending());
+        fundHoldService.applyPendingCredit(holdId);
+
+        verify(ledger, times(2)).apply(LEDGER_ACCOUNT, Money.ofMajor(100), "hold-1-credit");
+        assertFalse(holds.get(holdId).isCreditPending());
+    }
+
+    private static void commit() {
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static FundHoldRequest request(String accountNumber, String amount) {
+        return FundHoldRequest.builder().accountNumber(accountNumber).amount(new BigDecimal(amount)).build();
+    }
+
+    private static BalanceUpdate credit(String amount) {
+        return BalanceUpdate.builder().amount(new BigDecimal(amount)).build();
+    }
+
+    private static FundHold copy(FundHold fundHold) {
+
+        return FundHold.builder()
+                .holdId(fundHold.getHoldId())
+                .accountNumber(fundHold.getAccountNumber())
+                .amount(fundHold.getAmount())
+                .holdStatus(fundHold.getHoldStatus())
+                .expiresAt(fundHold.getExpiresAt())
+                .creditAccountNumber(fundHold.getCreditAccountNumber())
+                .creditPending(fundHold.isCreditPending()).build();
+    }
+}
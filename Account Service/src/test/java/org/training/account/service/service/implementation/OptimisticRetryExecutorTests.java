@@ -0,0 +1,63 @@
+package org.training.account.service.service.implementation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.training.account.service.exception.ConcurrentUpdateException;
+import org.training.account.service.exception.InSufficientFunds;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class OptimisticRetryExecutorTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final OptimisticRetryExecutor executor =
+            new OptimisticRetryExecutor(mock(PlatformTransactionManager.class), meterRegistry, 3, 1, 2);
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void retriesAMutationThatHitAConcurrentUpdate() {
+
+        String result = executor.execute("updateAccount", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("Row was updated by another transaction");
+            }
+            return "updated";
+        });
+
+        assertEquals("updated", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.counter("account.update.retries", "operation", "updateAccount").count());
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+
+        assertThrows(ConcurrentUpdateException.class, () -> executor.execute("updateAccount", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("Row was updated by another transaction");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, meterRegistry.counter("account.update.conflicts", "operation", "updateAccount").count());
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+
+        assertThrows(InSufficientFunds.class, () -> executor.execute("updateAccount", () -> {
+            attempts.incrementAndGet();
+            throw new InSufficientFunds("Insufficient balance in the account");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,49 @@
+package org.training.fundtransfer.configuration;
+
+import feign.RetryableException;
+import feign.Retryer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration of the transaction service client only, deliberately not a {@code @Configuration} so it does
+ * not apply to the account service client: a retried balance update could credit an account twice.
+ */
+public class TransactionClientConfiguration {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final long RETRY_PERIOD_MILLIS = 100;
+
+    private static final long MAX_RETRY_PERIOD_MILLIS = 1000;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Returns a retryer of the requests that failed to reach the transaction service or to get its answer.
+     * Only requests carrying an idempotency key are retried, as the transaction service answers their retries with
+     * the original response instead of recording the transactions again.
+     *
+     * @return the retryer
+     */
+    @Bean
+    public Retryer retryer() {
+        return new IdempotentRequestRetryer(new Retryer.Default(RETRY_PERIOD_MILLIS, MAX_RETRY_PERIOD_MILLIS, MAX_ATTEMPTS));
+    }
+
+    private record IdempotentRequestRetryer(Retryer retryer) implements Retryer {
+
+        @Override
+        public void continueOrPropagate(RetryableException exception) {
+
+            if (exception.request() == null || !exception.request().headers().containsKey(IDEMPOTENCY_KEY_HEADER)) {
+                throw exception;
+            }
+            retryer.continueOrPropagate(exception);
+        }
+
+        @Override
+        public Retryer clone() {
+            return new IdempotentRequestRetryer(retryer.clone());
+        }
+    }
+}
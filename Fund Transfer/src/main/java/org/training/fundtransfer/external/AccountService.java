@@ -3,12 +3,19 @@ package org.training.fundtransfer.external;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.fundtransfer.configuration.FeignClientConfiguration;
 import org.training.fundtransfer.model.dto.Account;
-import org.training.fundtransfer.model.dto.response.Response;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.FundHoldRequest;
+import org.training.fundtransfer.model.dto.response.BalanceResponse;
+import org.training.fundtransfer.model.dto.response.FundHoldResponse;
+
+import java.util.List;
 
 @FeignClient(name = "account-service", configuration = FeignClientConfiguration.class)
 public interface AccountService {
@@ -23,12 +30,78 @@ public interface AccountService {
     ResponseEntity<Account> readByAccountNumber(@RequestParam String accountNumber);
 
     /**
-     * Updates an account with the given account number.
+     * Retrieves several accounts by their account numbers in one request.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found; unknown account numbers are left out.
+     */
+    @PostMapping("/accounts/lookup")
+    ResponseEntity<List<Account>> readByAccountNumbers(@RequestBody List<String> accountNumbers);
+
+    /**
+     * Credits or debits the balance of an account with a signed amount.
      *
      * @param accountNumber The account number of the account to be updated.
-     * @param account The updated account details.
-     * @return The response entity containing the response.
+     * @param balanceUpdate The signed amount to apply.
+     * @return The balance of the account after the update.
+     */
+    @PatchMapping("/accounts/balance")
+    ResponseEntity<BalanceResponse> updateBalance(@RequestParam String accountNumber, @RequestBody BalanceUpdate balanceUpdate);
+
+    /**
+     * Places a hold on an account, taking the amount out of its available balance.
+     *
+     * @param fundHoldRequest The account and the amount to hold.
+     * @return The placed hold.
+     */
+    @PostMapping("/accounts/holds")
+    ResponseEntity<FundHoldResponse> placeHold(@RequestBody FundHoldRequest fundHoldRequest);
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdId The ID of the hold.
+     * @return The hold.
+     */
+    @GetMapping("/accounts/holds/{holdId}")
+    ResponseEntity<FundHoldResponse> readHold(@PathVariable Long holdId);
+
+    /**
+     * Captures a hold, the held amount leaves the account.
+     *
+     * @param holdId The ID of the hold.
+     * @return The captured hold.
+     */
+    @PostMapping("/accounts/holds/{holdId}/capture")
+    ResponseEntity<FundHoldResponse> captureHold(@PathVariable Long holdId);
+
+    /**
+     * Settles a captured hold, the held amount is credited to another account.
+     * Settling a hold that is already settled credits nothing.
+     *
+     * @param holdId        The ID of the hold.
+     * @param accountNumber The account to credit.
+     * @return The settled hold.
+     */
+    @PostMapping("/accounts/holds/{holdId}/settle")
+    ResponseEntity<FundHoldResponse> settleHold(@PathVariable Long holdId, @RequestParam String accountNumber);
+
+    /**
+     * Refunds a captured hold, the held amount is credited back to its account.
+     * Refunding a hold that is already refunded credits nothing.
+     *
+     * @param holdId The ID of the hold.
+     * @return The refunded hold.
+     */
+    @PostMapping("/accounts/holds/{holdId}/refund")
+    ResponseEntity<FundHoldResponse> refundHold(@PathVariable Long holdId);
+
+    /**
+     * Releases a hold, the held amount returns to the available balance.
+     *
+     * @param holdId The ID of the hold.
+     * @return The released hold.
      */
-    @PutMapping("/accounts")
-    ResponseEntity<Response> updateAccount(@RequestParam String accountNumber, @RequestBody Account account);
+    @PostMapping("/accounts/holds/{holdId}/release")
+    ResponseEntity<FundHoldResponse> releaseHold(@PathVariable Long holdId);
 }
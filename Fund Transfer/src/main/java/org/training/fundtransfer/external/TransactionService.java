@@ -4,14 +4,17 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.fundtransfer.configuration.FeignClientConfiguration;
+import org.training.fundtransfer.configuration.TransactionClientConfiguration;
 import org.training.fundtransfer.model.dto.Transaction;
 import org.training.fundtransfer.model.dto.response.Response;
 
 import java.util.List;
 
-@FeignClient(name = "transaction-service", configuration = FeignClientConfiguration.class)
+@FeignClient(name = "transaction-service",
+        configuration = {FeignClientConfiguration.class, TransactionClientConfiguration.class})
 public interface TransactionService {
 
     /**
@@ -26,10 +29,15 @@ public interface TransactionService {
     /**
      * Make internal transactions.
      *
+     * A retry with the same idempotency key is answered with the original response instead of recording the transactions again,
+     * so the request is retried when it fails to reach the transaction service.
+     *
      * @param transactions         The list of transactions to be processed.
      * @param transactionReference The reference for the transaction.
+     * @param idempotencyKey       The idempotency key of the request.
      * @return The response entity containing the response.
      */
     @PostMapping("/transactions/internal")
-    ResponseEntity<Response> makeInternalTransactions(@RequestBody List<Transaction> transactions,@RequestParam String transactionReference);
+    ResponseEntity<Response> makeInternalTransactions(@RequestBody List<Transaction> transactions,@RequestParam String transactionReference,
+                                                      @RequestHeader("Idempotency-Key") String idempotencyKey);
 }
@@ -0,0 +1,19 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FundHoldRequest {
+
+    private String accountNumber;
+
+    private BigDecimal amount;
+}
@@ -0,0 +1,11 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.Data;
+
+@Data
+public class SequenceValue {
+
+    private String sequenceName;
+
+    private long value;
+}
@@ -0,0 +1,26 @@
+package org.training.fundtransfer.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FundHoldResponse {
+
+    private Long holdId;
+
+    private String accountNumber;
+
+    private BigDecimal amount;
+
+    private String holdStatus;
+
+    private LocalDateTime expiresAt;
+}
@@ -5,15 +5,16 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.training.fundtransfer.configuration.PooledTableId;
 import org.training.fundtransfer.model.TransactionStatus;
 import org.training.fundtransfer.model.TransferType;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,10 +24,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_fund_transfer_transaction_reference", columnList = "transactionReference", unique = true),
+        @Index(name = "idx_fund_transfer_from_account", columnList = "fromAccount"),
+        @Index(name = "idx_fund_transfer_status_transferred_on", columnList = "status, transferredOn")
+})
 public class FundTransfer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId("fund_transfer")
     private Long fundTransferId;
 
     private String transactionReference;
@@ -37,6 +43,8 @@ public class FundTransfer {
 
     private BigDecimal amount;
 
+    private Long holdId;
+
     @Enumerated(EnumType.STRING)
     private TransactionStatus status;
 
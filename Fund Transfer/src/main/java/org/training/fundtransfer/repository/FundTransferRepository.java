@@ -1,8 +1,16 @@
 package org.training.fundtransfer.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.fundtransfer.model.TransactionStatus;
 import org.training.fundtransfer.model.entity.FundTransfer;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +31,47 @@ public interface FundTransferRepository extends JpaRepository<FundTransfer, Long
      * @return A list of FundTransfer objects.
      */
     List<FundTransfer> findFundTransferByFromAccount(String accountId);
+
+    /**
+     * Records the hold of a transfer, only while the transfer still has the given status.
+     *
+     * @param fundTransferId the ID of the transfer
+     * @param holdId         the ID of the hold placed on the source account
+     * @param status         the status the transfer must have
+     * @return the number of rows updated, zero if the transfer no longer has the given status
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FundTransfer t SET t.holdId = :holdId WHERE t.fundTransferId = :fundTransferId AND t.status = :status")
+    int assignHold(@Param("fundTransferId") Long fundTransferId, @Param("holdId") Long holdId,
+                   @Param("status") TransactionStatus status);
+
+    /**
+     * Moves a transfer from one status to another, only if it still has the expected status.
+     * A transfer and the sweeper resolving it race on this update, so the transfer is finished exactly once.
+     *
+     * @param fundTransferId the ID of the transfer
+     * @param from           the status the transfer must have
+     * @param to             the new status
+     * @return the number of rows updated, zero if the transfer no longer has the expected status
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FundTransfer t SET t.status = :to WHERE t.fundTransferId = :fundTransferId AND t.status = :from")
+    int transition(@Param("fundTransferId") Long fundTransferId, @Param("from") TransactionStatus from,
+                   @Param("to") TransactionStatus to);
+
+    /**
+     * Finds the IDs of the transfers with the given status that started before the given time.
+     *
+     * @param status   the status of the transfers
+     * @param before   the time the transfers started before
+     * @param excluded the IDs of the transfers to leave out
+     * @param pageable limits the number of transfers returned
+     * @return the IDs of the transfers, oldest first
+     */
+    @Query("SELECT t.fundTransferId FROM FundTransfer t WHERE t.status = :status AND t.transferredOn < :before " +
+            "AND t.fundTransferId NOT IN :excluded ORDER BY t.transferredOn")
+    List<Long> findStartedBefore(@Param("status") TransactionStatus status, @Param("before") LocalDateTime before,
+                                 @Param("excluded") Collection<Long> excluded, Pageable pageable);
 }
@@ -16,6 +16,13 @@ public interface FundTransferService {
      */
     FundTransferResponse fundTransfer(FundTransferRequest fundTransferRequest);
 
+    /**
+     * Resolves a transfer left pending from the status of the hold on its source account.
+     *
+     * @param fundTransferId The ID of the transfer.
+     */
+    void resolveTransfer(Long fundTransferId);
+
     /**
      * Retrieve transfer details based on the provided reference ID.
      *
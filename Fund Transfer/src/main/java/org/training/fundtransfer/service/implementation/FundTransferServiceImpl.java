@@ -7,14 +7,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.training.fundtransfer.exception.AccountUpdateException;
 import org.training.fundtransfer.exception.GlobalErrorCode;
-import org.training.fundtransfer.exception.InsufficientBalance;
+import org.training.fundtransfer.exception.GlobalException;
 import org.training.fundtransfer.exception.ResourceNotFound;
 import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.external.SequenceService;
 import org.training.fundtransfer.external.TransactionService;
 import org.training.fundtransfer.model.mapper.FundTransferMapper;
 import org.training.fundtransfer.model.TransactionStatus;
 import org.training.fundtransfer.model.TransferType;
 import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.FundHoldRequest;
 import org.training.fundtransfer.model.dto.FundTransferDto;
 import org.training.fundtransfer.model.dto.Transaction;
 import org.training.fundtransfer.model.dto.request.FundTransferRequest;
@@ -23,10 +25,10 @@ import org.training.fundtransfer.model.entity.FundTransfer;
 import org.training.fundtransfer.repository.FundTransferRepository;
 import org.training.fundtransfer.service.FundTransferService;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -36,93 +38,184 @@ public class FundTransferServiceImpl implements FundTransferService {
     private final AccountService accountService;
     private final FundTransferRepository fundTransferRepository;
     private final TransactionService transactionService;
+    private final SequenceService sequenceService;
 
     @Value("${spring.application.ok}")
     private String ok;
 
     private final FundTransferMapper fundTransferMapper = new FundTransferMapper();
 
+    private static final String REFERENCE_SEQUENCE = "transfer-reference";
+
+    /**
+     * Transfer references are recorded as transaction references too; the prefix keeps them apart from the
+     * references of deposits and withdrawals, which come from a sequence of their own.
+     */
+    private static final String REFERENCE_PREFIX = "TRF";
+
     /**
      * Transfers funds from one account to another.
+     * Both accounts are read with a single lookup so a missing account fails the transfer before any money moves;
+     * the status and balance of the source account are checked by the account service as part of the hold.
+     * The transfer is recorded as pending before any money moves and is finished once the money has moved.
      *
      * @param fundTransferRequest The request object containing the details of the fund transfer.
      * @return The response object indicating the status of the fund transfer.
-     * @throws ResourceNotFound If the requested account is not found on the server.
-     * @throws AccountUpdateException If the account status is pending or inactive.
-     * @throws InsufficientBalance If the required amount to transfer is not available.
+     * @throws ResourceNotFound If the source or destination account is not found on the server.
+     * @throws GlobalException If the source account is not active or has an insufficient balance.
      */
     @Override
     public FundTransferResponse fundTransfer(FundTransferRequest fundTransferRequest) {
 
-        Account fromAccount;
-        ResponseEntity<Account> response = accountService.readByAccountNumber(fundTransferRequest.getFromAccount());
-        if(Objects.isNull(response.getBody())){
-            log.error("requested account "+fundTransferRequest.getFromAccount()+" is not found on the server");
-            throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
-        }
-        fromAccount = response.getBody();
-        if (!fromAccount.getAccountStatus().equals("ACTIVE")) {
-            log.error("account status is pending or inactive, please update the account status");
-            throw new AccountUpdateException("account is status is :pending", GlobalErrorCode.NOT_ACCEPTABLE);
+        ResponseEntity<List<Account>> response = accountService.readByAccountNumbers(
+                List.of(fundTransferRequest.getFromAccount(), fundTransferRequest.getToAccount()));
+        Set<String> found = Objects.isNull(response.getBody()) ? Set.of() : response.getBody().stream()
+                .map(Account::getAccountNumber)
+                .collect(Collectors.toSet());
+        for (String accountNumber : List.of(fundTransferRequest.getFromAccount(), fundTransferRequest.getToAccount())) {
+            if (!found.contains(accountNumber)) {
+                log.error("requested account "+accountNumber+" is not found on the server");
+                throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+            }
         }
-        if (fromAccount.getAvailableBalance().compareTo(fundTransferRequest.getAmount()) < 0) {
-            log.error("required amount to transfer is not available");
-            throw new InsufficientBalance("requested amount is not available", GlobalErrorCode.NOT_ACCEPTABLE);
-        }
-        Account toAccount;
-        response = accountService.readByAccountNumber(fundTransferRequest.getToAccount());
-        if(Objects.isNull(response.getBody())) {
-            log.error("requested account "+fundTransferRequest.getToAccount()+" is not found on the server");
-            throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
-        }
-        toAccount = response.getBody();
-        String transactionId = internalTransfer(fromAccount, toAccount, fundTransferRequest.getAmount());
-        FundTransfer fundTransfer = FundTransfer.builder()
+        FundTransfer fundTransfer = fundTransferRepository.save(FundTransfer.builder()
                 .transferType(TransferType.INTERNAL)
                 .amount(fundTransferRequest.getAmount())
-                .fromAccount(fromAccount.getAccountNumber())
-                .transactionReference(transactionId)
-                .status(TransactionStatus.SUCCESS)
-                .toAccount(toAccount.getAccountNumber()).build();
+                .fromAccount(fundTransferRequest.getFromAccount())
+                .transactionReference(REFERENCE_PREFIX + sequenceService.generateValue(REFERENCE_SEQUENCE).getValue())
+                .status(TransactionStatus.PENDING)
+                .toAccount(fundTransferRequest.getToAccount()).build());
 
-        fundTransferRepository.save(fundTransfer);
+        internalTransfer(fundTransfer);
         return FundTransferResponse.builder()
-                .transactionId(transactionId)
+                .transactionId(fundTransfer.getTransactionReference())
                 .message("Fund transfer was successful").build();
     }
 
     /**
-     * Transfers funds from one account to another within the system.
+     * Moves the amount of a pending transfer from one account to another within the system.
+     * The amount is held on the source account and the hold is captured, which debits the source for good; only then
+     * is the captured hold settled into the destination account. Every step after the hold is keyed by the hold ID,
+     * so when a step fails, even with an unknown outcome, the transfer is resolved from the status of its hold:
+     * a captured hold that was not settled is refunded to the source account.
      *
-     * @param fromAccount The account to transfer funds from.
-     * @param toAccount The account to transfer funds to.
-     * @param amount The amount of funds to transfer.
-     * @return The transaction reference number.
+     * @param fundTransfer The pending transfer.
+     * @throws GlobalException If the money could not be moved; the source account is then left as it was.
      */
-    private String internalTransfer(Account fromAccount, Account toAccount, BigDecimal amount) {
+    private void internalTransfer(FundTransfer fundTransfer) {
+
+        Long holdId;
+        try {
+            holdId = accountService.placeHold(FundHoldRequest.builder()
+                    .accountNumber(fundTransfer.getFromAccount())
+                    .amount(fundTransfer.getAmount()).build()).getBody().getHoldId();
+        } catch (RuntimeException exception) {
+            finish(fundTransfer, TransactionStatus.FAILED);
+            throw exception;
+        }
+        if (fundTransferRepository.assignHold(fundTransfer.getFundTransferId(), holdId, TransactionStatus.PENDING) == 0) {
+            log.error("transfer " + fundTransfer.getTransactionReference() + " was resolved before its hold was placed, releasing hold " + holdId);
+            accountService.releaseHold(holdId);
+            throw new AccountUpdateException(GlobalErrorCode.NOT_ACCEPTABLE, "Fund transfer timed out, please retry");
+        }
+        fundTransfer.setHoldId(holdId);
+
+        try {
+            accountService.captureHold(holdId);
+            accountService.settleHold(holdId, fundTransfer.getToAccount());
+        } catch (RuntimeException exception) {
+            log.error("moving the money of transfer " + fundTransfer.getTransactionReference() + " failed, resolving it from hold " + holdId);
+            try {
+                if (resolve(fundTransfer) == TransactionStatus.SUCCESS) {
+                    return;
+                }
+            } catch (RuntimeException resolveException) {
+                log.error("unable to resolve transfer " + fundTransfer.getTransactionReference() + ", leaving it to the sweeper", resolveException);
+            }
+            throw exception;
+        }
 
-        fromAccount.setAvailableBalance(fromAccount.getAvailableBalance().subtract(amount));
-        accountService.updateAccount(fromAccount.getAccountNumber(), fromAccount);
+        try {
+            complete(fundTransfer);
+        } catch (RuntimeException exception) {
+            log.error("unable to record the transactions of transfer " + fundTransfer.getTransactionReference() + ", leaving it to the sweeper", exception);
+        }
+    }
 
-        toAccount.setAvailableBalance(toAccount.getAvailableBalance().add(amount));
-        accountService.updateAccount(toAccount.getAccountNumber(), toAccount);
+    /**
+     * Resolves a transfer left pending, for instance because the service stopped half-way through it.
+     *
+     * @param fundTransferId The ID of the transfer.
+     */
+    @Override
+    public void resolveTransfer(Long fundTransferId) {
+
+        fundTransferRepository.findById(fundTransferId)
+                .filter(fundTransfer -> fundTransfer.getStatus() == TransactionStatus.PENDING)
+                .ifPresent(fundTransfer -> log.info("resolved pending transfer {} as {}",
+                        fundTransfer.getTransactionReference(), resolve(fundTransfer)));
+    }
+
+    /**
+     * Finishes a pending transfer from the status of its hold. An active hold is released and a captured hold is
+     * refunded, both fail the transfer; a settled hold means the money moved, so the transfer is completed.
+     * Releasing and refunding are conditional on the status of the hold, so this is safe to run while the transfer
+     * is still in progress: the first of them to change the hold wins.
+     *
+     * @return the status the transfer was finished with
+     */
+    private TransactionStatus resolve(FundTransfer fundTransfer) {
+
+        Long holdId = fundTransfer.getHoldId();
+        if (holdId == null) {
+            return finish(fundTransfer, TransactionStatus.FAILED);
+        }
+        String holdStatus = accountService.readHold(holdId).getBody().getHoldStatus();
+        switch (holdStatus) {
+            case "ACTIVE" -> accountService.releaseHold(holdId);
+            case "CAPTURED" -> accountService.refundHold(holdId);
+            case "SETTLED" -> {
+                complete(fundTransfer);
+                return TransactionStatus.SUCCESS;
+            }
+            default -> log.info("hold " + holdId + " of transfer " + fundTransfer.getTransactionReference() + " is " + holdStatus);
+        }
+        return finish(fundTransfer, TransactionStatus.FAILED);
+    }
+
+    /**
+     * Records the transactions of a transfer whose money has moved and finishes it. The transactions are sent with
+     * an idempotency key derived from the transfer reference, so recording them again is answered with the original response.
+     */
+    private void complete(FundTransfer fundTransfer) {
 
         List<Transaction> transactions = List.of(
                 Transaction.builder()
-                        .accountId(fromAccount.getAccountNumber())
+                        .accountId(fundTransfer.getFromAccount())
                         .transactionType("INTERNAL_TRANSFER")
-                        .amount(amount.negate())
-                        .description("Internal fund transfer from "+fromAccount.getAccountNumber()+" to "+toAccount.getAccountNumber())
+                        .amount(fundTransfer.getAmount().negate())
+                        .description("Internal fund transfer from "+fundTransfer.getFromAccount()+" to "+fundTransfer.getToAccount())
                         .build(),
                 Transaction.builder()
-                        .accountId(toAccount.getAccountNumber())
+                        .accountId(fundTransfer.getToAccount())
                         .transactionType("INTERNAL_TRANSFER")
-                        .amount(amount)
-                        .description("Internal fund transfer received from: "+fromAccount.getAccountNumber()).build());
+                        .amount(fundTransfer.getAmount())
+                        .description("Internal fund transfer received from: "+fundTransfer.getFromAccount()).build());
 
-        String transactionReference = UUID.randomUUID().toString();
-        transactionService.makeInternalTransactions(transactions, transactionReference);
-        return transactionReference;
+        transactionService.makeInternalTransactions(transactions, fundTransfer.getTransactionReference(),
+                "transfer-" + fundTransfer.getTransactionReference());
+        finish(fundTransfer, TransactionStatus.SUCCESS);
+    }
+
+    private TransactionStatus finish(FundTransfer fundTransfer, TransactionStatus status) {
+
+        if (fundTransferRepository.transition(fundTransfer.getFundTransferId(), TransactionStatus.PENDING, status) == 0) {
+            return fundTransferRepository.findById(fundTransfer.getFundTransferId())
+                    .map(FundTransfer::getStatus)
+                    .orElse(status);
+        }
+        fundTransfer.setStatus(status);
+        return status;
     }
 
     /**
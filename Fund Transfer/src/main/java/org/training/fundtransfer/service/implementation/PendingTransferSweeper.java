@@ -0,0 +1,58 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.service.FundTransferService;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically resolves the transfers left pending for longer than a transfer can take, for instance because
+ * the service stopped between debiting the source account and crediting the destination.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingTransferSweeper {
+
+    private final FundTransferRepository fundTransferRepository;
+    private final FundTransferService fundTransferService;
+
+    @Value("${app.config.pending-transfers.timeout-seconds}")
+    private long timeoutSeconds;
+
+    @Value("${app.config.pending-transfers.sweep-batch-size}")
+    private int batchSize;
+
+    /**
+     * Resolves the overdue pending transfers in batches. A transfer that cannot be resolved is logged and skipped;
+     * it is left out for the rest of this sweep and retried by the next one.
+     */
+    @Scheduled(fixedDelayString = "${app.config.pending-transfers.sweep-interval-millis}")
+    public void sweep() {
+
+        Set<Long> failed = new HashSet<>();
+        List<Long> pending;
+        do {
+            pending = fundTransferRepository.findStartedBefore(TransactionStatus.PENDING,
+                    LocalDateTime.now().minusSeconds(timeoutSeconds), failed, PageRequest.of(0, batchSize));
+            for (Long fundTransferId : pending) {
+                try {
+                    fundTransferService.resolveTransfer(fundTransferId);
+                } catch (RuntimeException exception) {
+                    log.error("unable to resolve pending transfer {}", fundTransferId, exception);
+                    failed.add(fundTransferId);
+                }
+            }
+        } while (pending.size() == batchSize);
+    }
+}
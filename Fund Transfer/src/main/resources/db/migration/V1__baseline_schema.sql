@@ -0,0 +1,13 @@
+-- Schema as created by Hibernate before the migrations were introduced; existing databases are baselined at this version.
+
+create table fund_transfer (
+    fund_transfer_id bigint not null auto_increment,
+    amount decimal(38,2),
+    from_account varchar(255),
+    status enum ('FAILED','PENDING','PROCESSING','SUCCESS'),
+    to_account varchar(255),
+    transaction_reference varchar(255),
+    transfer_type enum ('CHEQUE','EXTERNAL','INTERNAL','WITHDRAWAL'),
+    transferred_on datetime(6),
+    primary key (fund_transfer_id)
+) engine=InnoDB;
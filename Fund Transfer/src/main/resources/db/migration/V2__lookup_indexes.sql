@@ -0,0 +1,7 @@
+-- Indexes backing the fund transfer lookups by transaction reference and by source account.
+
+create unique index uk_fund_transfer_transaction_reference
+    on fund_transfer (transaction_reference);
+
+create index idx_fund_transfer_from_account
+    on fund_transfer (from_account);
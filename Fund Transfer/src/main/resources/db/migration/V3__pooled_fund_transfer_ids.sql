@@ -0,0 +1,12 @@
+-- Fund transfer IDs are reserved in blocks from id_generator instead of the auto_increment column, so the inserts
+-- can be batched. The block reservation starts above every existing ID; the auto_increment attribute is no longer
+-- used and is left on the column, as removing it would rebuild the table.
+
+create table id_generator (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_generator (sequence_name, next_val)
+select 'fund_transfer', coalesce(max(fund_transfer_id), 0) + 1 from fund_transfer;
@@ -0,0 +1,8 @@
+-- A transfer is recorded as pending with the hold placed on its source account before any money moves, so the
+-- transfers left pending by a crash can be found and resolved from the status of their hold.
+
+alter table fund_transfer
+    add column hold_id bigint;
+
+create index idx_fund_transfer_status_transferred_on
+    on fund_transfer (status, transferred_on);
@@ -0,0 +1,123 @@
+package org.training.sequence.generator.benchmark;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Plain JDBC version of the reservations the service performs, running against an in-memory H2
+ * database so the benchmarks need neither MySQL nor a Spring context.
+ */
+public class JdbcSequenceReserver implements Closeable {
+
+    private final JdbcConnectionPool pool;
+
+    /**
+     * Creates a fresh in-memory database holding the legacy and the named sequence tables.
+     *
+     * @param database the name of the in-memory database
+     * @param threads  the number of threads that will reserve concurrently
+     */
+    public JdbcSequenceReserver(String database, int threads) {
+
+        pool = JdbcConnectionPool.create("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000", "sa", "");
+        pool.setMaxConnections(Math.max(threads, 1) + 1);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE sequence (sequence_id BIGINT PRIMARY KEY, account_number BIGINT NOT NULL)");
+            statement.execute("CREATE TABLE named_sequence (sequence_name VARCHAR(255) PRIMARY KEY, high_water_mark BIGINT NOT NULL)");
+            statement.execute("INSERT INTO sequence VALUES (1, 0)");
+            statement.execute("INSERT INTO named_sequence VALUES ('benchmark', 0)");
+        } catch (SQLException exception) {
+            throw new IllegalStateException("unable to create the benchmark schema", exception);
+        }
+    }
+
+    /**
+     * The approach the service started with: read the row, increment it in memory and save it back,
+     * one transaction per value. The row is locked so the comparison is against a correct version.
+     *
+     * @return the next value
+     */
+    public long readAndSave() {
+
+        return inTransaction(connection -> {
+            long current;
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT account_number FROM sequence WHERE sequence_id = 1 FOR UPDATE");
+                 ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                current = resultSet.getLong(1);
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE sequence SET account_number = ? WHERE sequence_id = 1")) {
+                update.setLong(1, current + 1);
+                update.executeUpdate();
+            }
+            return current + 1;
+        });
+    }
+
+    /**
+     * Same atomic increment as {@code NamedSequenceRepository.advance} followed by the read of the new mark.
+     *
+     * @return reserves the given number of values and returns the new high-water mark
+     */
+    public LongUnaryOperator advance() {
+
+        return size -> inTransaction(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE named_sequence SET high_water_mark = high_water_mark + ? WHERE sequence_name = 'benchmark'")) {
+                update.setLong(1, size);
+                update.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT high_water_mark FROM named_sequence WHERE sequence_name = 'benchmark'");
+                 ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException exception) {
+            throw new IllegalStateException("unable to shut the benchmark database down", exception);
+        } finally {
+            pool.dispose();
+        }
+    }
+
+    private long inTransaction(SqlWork work) {
+
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long result = work.execute(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException exception) {
+                connection.rollback();
+                throw exception;
+            }
+        } catch (SQLException exception) {
+            throw new IllegalStateException("reservation failed", exception);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+
+        long execute(Connection connection) throws SQLException;
+    }
+}
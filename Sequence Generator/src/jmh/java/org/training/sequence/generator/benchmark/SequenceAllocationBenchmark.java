@@ -0,0 +1,100 @@
+package org.training.sequence.generator.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.training.sequence.generator.allocator.BlockSequenceAllocator;
+import org.training.sequence.generator.allocator.GaplessSequenceAllocator;
+import org.training.sequence.generator.allocator.MappedSequenceJournal;
+import org.training.sequence.generator.allocator.SequenceAllocator;
+import org.training.sequence.generator.allocator.SnowflakeSequenceAllocator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation throughput and latency of every strategy, compared with the original read-and-save approach.
+ * Sample-time mode reports the latency percentiles alongside the average.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceAllocationBenchmark {
+
+    public enum Strategy {
+        READ_AND_SAVE, GAPLESS, BLOCK, JOURNALED_BLOCK, SNOWFLAKE
+    }
+
+    @Param({"READ_AND_SAVE", "GAPLESS", "BLOCK", "JOURNALED_BLOCK", "SNOWFLAKE"})
+    private Strategy strategy;
+
+    @Param({"1000"})
+    private long blockSize;
+
+    private JdbcSequenceReserver database;
+
+    private MappedSequenceJournal journal;
+
+    private Path journalFile;
+
+    private SequenceAllocator allocator;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) throws IOException {
+
+        database = new JdbcSequenceReserver("sequence_benchmark", params.getThreads());
+        allocator = switch (strategy) {
+            case READ_AND_SAVE -> database::readAndSave;
+            case GAPLESS -> new GaplessSequenceAllocator(database.advance());
+            case BLOCK -> new BlockSequenceAllocator("benchmark", blockSize, database.advance(), new SimpleMeterRegistry());
+            case JOURNALED_BLOCK -> {
+                journalFile = Files.createTempFile("sequence", ".journal");
+                journal = new MappedSequenceJournal(journalFile, 1, true);
+                yield new BlockSequenceAllocator("benchmark", blockSize,
+                        size -> journal.reserve("benchmark", size, () -> database.advance().applyAsLong(0L)),
+                        new SimpleMeterRegistry());
+            }
+            case SNOWFLAKE -> new SnowflakeSequenceAllocator(1, () -> true, System::currentTimeMillis);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        if (journal != null) {
+            journal.close();
+            Files.deleteIfExists(journalFile);
+        }
+        database.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThread() {
+        return allocator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long multiThread() {
+        return allocator.next();
+    }
+}
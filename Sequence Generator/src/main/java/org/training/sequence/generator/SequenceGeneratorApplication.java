@@ -2,8 +2,10 @@ package org.training.sequence.generator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SequenceGeneratorApplication {
 
     public static void main(String[] args) {
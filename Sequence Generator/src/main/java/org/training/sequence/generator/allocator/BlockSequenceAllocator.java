@@ -0,0 +1,83 @@
+package org.training.sequence.generator.allocator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Hi/lo allocator: reserves blocks of values with a single atomic update and serves the
+ * individual values from memory until the block is exhausted.
+ */
+@Slf4j
+public class BlockSequenceAllocator implements SequenceAllocator {
+
+    private final String name;
+
+    private final long blockSize;
+
+    private final LongUnaryOperator reserver;
+
+    private final Counter refills;
+
+    private final Timer refillLatency;
+
+    private volatile SequenceBlock block = new SequenceBlock(1L, 0L);
+
+    /**
+     * Creates a block allocator.
+     *
+     * @param name          the name of the sequence, used to tag the metrics
+     * @param blockSize     the number of values reserved per refill
+     * @param reserver      reserves the given number of values and returns the new high-water mark
+     * @param meterRegistry the registry the refill metrics are published to
+     */
+    public BlockSequenceAllocator(String name, long blockSize, LongUnaryOperator reserver, MeterRegistry meterRegistry) {
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        this.name = name;
+        this.blockSize = blockSize;
+        this.reserver = reserver;
+        this.refills = Counter.builder("sequence.block.refills")
+                .description("Number of blocks reserved from the backing store")
+                .tag("sequence", name)
+                .register(meterRegistry);
+        this.refillLatency = Timer.builder("sequence.block.refill.latency")
+                .description("Time taken to reserve a block from the backing store")
+                .tag("sequence", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long next() {
+
+        while (true) {
+            SequenceBlock current = block;
+            long value = current.take();
+            if (value != SequenceBlock.EXHAUSTED) {
+                return value;
+            }
+            refill(current);
+        }
+    }
+
+    /**
+     * Reserves a new block unless another thread already replaced the exhausted one.
+     *
+     * @param exhausted the block the caller found exhausted
+     */
+    private synchronized void refill(SequenceBlock exhausted) {
+
+        if (block != exhausted) {
+            return;
+        }
+        long highWaterMark = refillLatency.record(() -> reserver.applyAsLong(blockSize));
+        refills.increment();
+        log.debug("reserved block of {} values ending at {} for sequence {}", blockSize, highWaterMark, name);
+        block = new SequenceBlock(highWaterMark - blockSize + 1, highWaterMark);
+    }
+}
@@ -0,0 +1,26 @@
+package org.training.sequence.generator.allocator;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Strict allocator: every value is reserved from the backing store on its own,
+ * so no value is lost when the service stops.
+ */
+public class GaplessSequenceAllocator implements SequenceAllocator {
+
+    private final LongUnaryOperator reserver;
+
+    /**
+     * Creates a gapless allocator.
+     *
+     * @param reserver reserves the given number of values and returns the new high-water mark
+     */
+    public GaplessSequenceAllocator(LongUnaryOperator reserver) {
+        this.reserver = reserver;
+    }
+
+    @Override
+    public long next() {
+        return reserver.applyAsLong(1L);
+    }
+}
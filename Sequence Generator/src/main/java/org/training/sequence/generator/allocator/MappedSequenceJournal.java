@@ -0,0 +1,158 @@
+package org.training.sequence.generator.allocator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Memory-mapped file recording the high-water mark of each journaled sequence.
+ * A mark is written before any value below it is served, so after a crash every sequence
+ * resumes past the last journaled mark and never reissues a value.
+ *
+ * <p>The file is a fixed array of 64-byte slots: a zero-padded UTF-8 name followed by the mark.
+ */
+@Slf4j
+public class MappedSequenceJournal implements Closeable {
+
+    private static final int NAME_BYTES = 56;
+
+    private static final int SLOT_BYTES = NAME_BYTES + Long.BYTES;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slots;
+
+    private final boolean forceEachReservation;
+
+    private final Map<String, Integer> slotByName = new HashMap<>();
+
+    /**
+     * Opens the journal, creating it when it does not exist yet.
+     *
+     * @param path                 the journal file
+     * @param slots                the number of sequences the journal can hold
+     * @param forceEachReservation whether every reservation is forced to disk before it returns
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedSequenceJournal(Path path, int slots, boolean forceEachReservation) throws IOException {
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.slots = (int) Math.max(slots, channel.size() / SLOT_BYTES);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) this.slots * SLOT_BYTES);
+        this.forceEachReservation = forceEachReservation;
+
+        for (int slot = 0; slot < this.slots; slot++) {
+            String name = readName(slot);
+            if (!name.isEmpty()) {
+                slotByName.put(name, slot);
+                log.info("recovered sequence {} at high-water mark {} from {}", name, readMark(slot), path);
+            }
+        }
+    }
+
+    /**
+     * Reserves a range of values and journals the new high-water mark.
+     *
+     * @param sequenceName the name of the sequence
+     * @param size         the number of values to reserve
+     * @param seed         supplies the high-water mark of a sequence that is not journaled yet
+     * @return the new high-water mark, i.e. the last value of the reserved range
+     */
+    public synchronized long reserve(String sequenceName, long size, LongSupplier seed) {
+
+        Integer slot = slotByName.get(sequenceName);
+        long current;
+        if (slot == null) {
+            slot = claimSlot(sequenceName);
+            current = seed.getAsLong();
+        } else {
+            current = readMark(slot);
+        }
+
+        long highWaterMark = Math.addExact(current, size);
+        buffer.putLong(slot * SLOT_BYTES + NAME_BYTES, highWaterMark);
+        if (!slotByName.containsKey(sequenceName)) {
+            writeName(slot, sequenceName);
+            slotByName.put(sequenceName, slot);
+        }
+        if (forceEachReservation) {
+            buffer.force(slot * SLOT_BYTES, SLOT_BYTES);
+        }
+        return highWaterMark;
+    }
+
+    /**
+     * Reads the journaled high-water mark of a sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the high-water mark, or -1 if the sequence is not journaled
+     */
+    public synchronized long highWaterMark(String sequenceName) {
+
+        Integer slot = slotByName.get(sequenceName);
+        return slot == null ? -1L : readMark(slot);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Finds a free slot for a new sequence. The name is only written once its mark is in place,
+     * so a crash in between leaves the slot free rather than recording a zero mark.
+     */
+    private int claimSlot(String sequenceName) {
+
+        if (sequenceName.getBytes(StandardCharsets.UTF_8).length > NAME_BYTES) {
+            throw new IllegalArgumentException("sequence name " + sequenceName + " is too long for the journal");
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (!slotByName.containsValue(slot) && readName(slot).isEmpty()) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("sequence journal is full, increase the number of slots");
+    }
+
+    private String readName(int slot) {
+
+        byte[] name = new byte[NAME_BYTES];
+        buffer.get(slot * SLOT_BYTES, name);
+        int length = 0;
+        while (length < NAME_BYTES && name[length] != 0) {
+            length++;
+        }
+        return new String(name, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void writeName(int slot, String sequenceName) {
+
+        byte[] name = new byte[NAME_BYTES];
+        byte[] encoded = sequenceName.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(encoded, 0, name, 0, encoded.length);
+        buffer.put(slot * SLOT_BYTES, name);
+    }
+
+    private long readMark(int slot) {
+        return buffer.getLong(slot * SLOT_BYTES + NAME_BYTES);
+    }
+}
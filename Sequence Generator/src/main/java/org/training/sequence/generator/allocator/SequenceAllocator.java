@@ -0,0 +1,11 @@
+package org.training.sequence.generator.allocator;
+
+public interface SequenceAllocator {
+
+    /**
+     * Returns the next value of the sequence.
+     *
+     * @return the next unique value
+     */
+    long next();
+}
@@ -0,0 +1,35 @@
+package org.training.sequence.generator.allocator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A contiguous, inclusive range of sequence values reserved in the database and handed out from memory.
+ */
+public final class SequenceBlock {
+
+    public static final long EXHAUSTED = -1L;
+
+    private final AtomicLong cursor;
+
+    private final long end;
+
+    public SequenceBlock(long start, long end) {
+        this.cursor = new AtomicLong(start);
+        this.end = end;
+    }
+
+    /**
+     * Takes the next value of the block.
+     *
+     * @return the next value, or {@link #EXHAUSTED} once every value of the block has been handed out
+     */
+    public long take() {
+
+        long value = cursor.getAndIncrement();
+        return value <= end ? value : EXHAUSTED;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,81 @@
+package org.training.sequence.generator.allocator;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Coordination-free allocator producing 64-bit IDs made of a millisecond timestamp (41 bits),
+ * a leased node ID (10 bits) and a per-millisecond counter (12 bits).
+ * IDs of a node are strictly increasing, also when the wall clock steps back for a while.
+ */
+public class SnowflakeSequenceAllocator implements SequenceAllocator {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    public static final int NODE_BITS = 10;
+
+    public static final int COUNTER_BITS = 12;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final long node;
+
+    private final BooleanSupplier leaseHeld;
+
+    private final LongSupplier clock;
+
+    /**
+     * Last issued timestamp and counter, packed as {@code timestamp << COUNTER_BITS | counter}.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Creates a snowflake allocator.
+     *
+     * @param nodeId    the node ID leased by this instance
+     * @param leaseHeld tells whether the node ID lease is still held
+     * @param clock     the wall clock in epoch milliseconds
+     */
+    public SnowflakeSequenceAllocator(int nodeId, BooleanSupplier leaseHeld, LongSupplier clock) {
+
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id should be between 0 and " + MAX_NODE_ID);
+        }
+        this.node = nodeId;
+        this.leaseHeld = leaseHeld;
+        this.clock = clock;
+    }
+
+    @Override
+    public long next() {
+
+        if (!leaseHeld.getAsBoolean()) {
+            throw new IllegalStateException("node id lease " + node + " is no longer held");
+        }
+        while (true) {
+            long last = state.get();
+            long lastTimestamp = last >>> COUNTER_BITS;
+            long now = clock.getAsLong() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << COUNTER_BITS;
+            } else if ((last & COUNTER_MASK) < COUNTER_MASK) {
+                next = last + 1;
+            } else {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                return (next >>> COUNTER_BITS) << (NODE_BITS + COUNTER_BITS)
+                        | node << COUNTER_BITS
+                        | next & COUNTER_MASK;
+            }
+        }
+    }
+}
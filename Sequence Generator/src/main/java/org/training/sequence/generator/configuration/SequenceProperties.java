@@ -0,0 +1,58 @@
+package org.training.sequence.generator.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.training.sequence.generator.model.AllocationStrategy;
+import org.training.sequence.generator.model.FsyncPolicy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sequence")
+public class SequenceProperties {
+
+    /**
+     * Largest range that can be reserved in a single call.
+     */
+    private int maxRange;
+
+    /**
+     * The sequences served by this instance, keyed by name.
+     */
+    private Map<String, Definition> definitions = new LinkedHashMap<>();
+
+    /**
+     * Local journal used by the sequences that are not persisted in the database.
+     */
+    private Journal journal = new Journal();
+
+    @Data
+    public static class Definition {
+
+        private AllocationStrategy strategy = AllocationStrategy.BLOCK;
+
+        /**
+         * Number of values reserved per database round-trip, used by the block strategy.
+         */
+        private long blockSize = 1;
+
+        /**
+         * Records the high-water mark in the local journal instead of the database.
+         * Only safe when a single instance serves the sequence.
+         */
+        private boolean journaled;
+    }
+
+    @Data
+    public static class Journal {
+
+        private String path = "sequence.journal";
+
+        private int slots = 64;
+
+        private FsyncPolicy fsync = FsyncPolicy.PER_BLOCK;
+    }
+}
@@ -1,9 +1,13 @@
 package org.training.sequence.generator.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.training.sequence.generator.model.dto.SequenceRange;
+import org.training.sequence.generator.model.dto.SequenceValue;
 import org.training.sequence.generator.model.entity.Sequence;
 import org.training.sequence.generator.service.SequenceService;
 
@@ -23,4 +27,38 @@ public class SequenceController {
     public Sequence generateAccountNumber() {
         return sequenceService.create();
     }
+
+    /**
+     * Generates a contiguous range of account numbers.
+     *
+     * @param count The number of account numbers to generate.
+     * @return The first account number of the range and the size of the range.
+     */
+    @PostMapping("/batch")
+    public SequenceRange generateAccountNumbers(@RequestParam int count) {
+        return sequenceService.createRange(count);
+    }
+
+    /**
+     * Generates the next value of a named sequence.
+     *
+     * @param sequenceName The name of the sequence.
+     * @return The generated value.
+     */
+    @PostMapping("/{sequenceName}")
+    public SequenceValue generateValue(@PathVariable String sequenceName) {
+        return sequenceService.next(sequenceName);
+    }
+
+    /**
+     * Generates a contiguous range of values from a named sequence.
+     *
+     * @param sequenceName The name of the sequence.
+     * @param count        The number of values to generate.
+     * @return The first value of the range and the size of the range.
+     */
+    @PostMapping("/{sequenceName}/batch")
+    public SequenceRange generateValues(@PathVariable String sequenceName, @RequestParam int count) {
+        return sequenceService.createRange(sequenceName, count);
+    }
 }
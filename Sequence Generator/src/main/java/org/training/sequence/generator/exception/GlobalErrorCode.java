@@ -0,0 +1,10 @@
+package org.training.sequence.generator.exception;
+
+public class GlobalErrorCode {
+
+    private GlobalErrorCode() {}
+
+    public static final String NOT_FOUND = "404";
+
+    public static final String BAD_REQUEST = "400";
+}
@@ -0,0 +1,26 @@
+package org.training.sequence.generator.exception;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    /**
+     * Exception handler for GlobalException.
+     *
+     * @param globalException The GlobalException to handle.
+     * @return The ResponseEntity with the error response.
+     */
+    @ExceptionHandler(GlobalException.class)
+    public ResponseEntity<Object> handleGlobalException(GlobalException globalException) {
+        return ResponseEntity
+                .badRequest()
+                .body(ErrorResponse.builder()
+                        .errorCode(globalException.getErrorCode())
+                        .message(globalException.getErrorMessage())
+                        .build());
+    }
+}
@@ -0,0 +1,8 @@
+package org.training.sequence.generator.exception;
+
+public class InvalidRangeException extends GlobalException {
+
+    public InvalidRangeException(String errorMessage) {
+        super(GlobalErrorCode.BAD_REQUEST, errorMessage);
+    }
+}
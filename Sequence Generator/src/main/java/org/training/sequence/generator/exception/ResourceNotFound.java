@@ -0,0 +1,8 @@
+package org.training.sequence.generator.exception;
+
+public class ResourceNotFound extends GlobalException {
+
+    public ResourceNotFound(String errorMessage) {
+        super(GlobalErrorCode.NOT_FOUND, errorMessage);
+    }
+}
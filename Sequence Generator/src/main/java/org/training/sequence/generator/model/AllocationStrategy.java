@@ -0,0 +1,6 @@
+package org.training.sequence.generator.model;
+
+public enum AllocationStrategy {
+
+    GAPLESS, BLOCK, SNOWFLAKE
+}
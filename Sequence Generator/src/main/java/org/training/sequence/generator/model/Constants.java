@@ -0,0 +1,12 @@
+package org.training.sequence.generator.model;
+
+public class Constants {
+
+    private Constants() {
+
+    }
+
+    public static final String ACCOUNT_NUMBER_SEQUENCE = "account-number";
+
+    public static final long LEGACY_ACCOUNT_SEQUENCE_ID = 1L;
+}
@@ -0,0 +1,14 @@
+package org.training.sequence.generator.model;
+
+public enum FsyncPolicy {
+
+    /**
+     * Forces every journaled high-water mark to disk before the reserved values are served.
+     */
+    PER_BLOCK,
+
+    /**
+     * Leaves writing back to the operating system, which survives a process crash but not a power loss.
+     */
+    NEVER
+}
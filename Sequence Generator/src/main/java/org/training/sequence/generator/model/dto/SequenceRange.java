@@ -0,0 +1,17 @@
+package org.training.sequence.generator.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SequenceRange {
+
+    private long start;
+
+    private int count;
+}
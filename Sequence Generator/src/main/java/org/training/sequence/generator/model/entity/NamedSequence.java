@@ -0,0 +1,21 @@
+package org.training.sequence.generator.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NamedSequence {
+
+    @Id
+    private String sequenceName;
+
+    private long highWaterMark;
+}
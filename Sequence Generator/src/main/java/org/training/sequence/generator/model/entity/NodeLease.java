@@ -0,0 +1,25 @@
+package org.training.sequence.generator.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NodeLease {
+
+    @Id
+    private int nodeId;
+
+    private String owner;
+
+    private LocalDateTime leasedUntil;
+}
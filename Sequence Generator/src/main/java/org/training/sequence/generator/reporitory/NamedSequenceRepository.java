@@ -0,0 +1,52 @@
+package org.training.sequence.generator.reporitory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.training.sequence.generator.model.entity.NamedSequence;
+
+public interface NamedSequenceRepository extends JpaRepository<NamedSequence, String> {
+
+    /**
+     * Atomically advances the high-water mark of a sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @param size         the number of values to reserve
+     * @return the number of rows updated, zero if the sequence does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE NamedSequence s SET s.highWaterMark = s.highWaterMark + :size WHERE s.sequenceName = :sequenceName")
+    int advance(@Param("sequenceName") String sequenceName, @Param("size") long size);
+
+    /**
+     * Raises the high-water mark of a sequence, leaving it untouched if it is already higher.
+     *
+     * @param sequenceName  the name of the sequence
+     * @param highWaterMark the high-water mark to raise the sequence to
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE NamedSequence s SET s.highWaterMark = :highWaterMark WHERE s.sequenceName = :sequenceName AND s.highWaterMark < :highWaterMark")
+    int raiseTo(@Param("sequenceName") String sequenceName, @Param("highWaterMark") long highWaterMark);
+
+    /**
+     * Reads the high-water mark of a sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the last value reserved from the sequence
+     */
+    @Query("SELECT s.highWaterMark FROM NamedSequence s WHERE s.sequenceName = :sequenceName")
+    long findHighWaterMarkBySequenceName(@Param("sequenceName") String sequenceName);
+
+    /**
+     * Creates a sequence, leaving it untouched if another instance created it first.
+     *
+     * @param sequenceName  the name of the sequence
+     * @param highWaterMark the initial high-water mark
+     * @return the number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO named_sequence (sequence_name, high_water_mark) VALUES (:sequenceName, :highWaterMark)", nativeQuery = true)
+    int initialise(@Param("sequenceName") String sequenceName, @Param("highWaterMark") long highWaterMark);
+}
@@ -0,0 +1,55 @@
+package org.training.sequence.generator.reporitory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.sequence.generator.model.entity.NodeLease;
+
+import java.time.LocalDateTime;
+
+public interface NodeLeaseRepository extends JpaRepository<NodeLease, Integer> {
+
+    /**
+     * Leases a node ID that has never been leased before.
+     * Fails with a constraint violation if another instance inserted the lease first.
+     *
+     * @param nodeId      the node ID to lease
+     * @param owner       the owner of the lease
+     * @param leasedUntil the expiry of the lease
+     * @return the number of rows inserted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO node_lease (node_id, owner, leased_until) VALUES (:nodeId, :owner, :leasedUntil)", nativeQuery = true)
+    int lease(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leasedUntil") LocalDateTime leasedUntil);
+
+    /**
+     * Takes over a lease that has expired.
+     *
+     * @param nodeId      the node ID to take over
+     * @param owner       the new owner of the lease
+     * @param leasedUntil the expiry of the new lease
+     * @param now         the current time
+     * @return the number of rows updated, one if the lease was taken over
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE NodeLease n SET n.owner = :owner, n.leasedUntil = :leasedUntil WHERE n.nodeId = :nodeId AND n.leasedUntil < :now")
+    int takeOver(@Param("nodeId") int nodeId, @Param("owner") String owner,
+                 @Param("leasedUntil") LocalDateTime leasedUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Extends a lease still held by the given owner.
+     *
+     * @param nodeId      the leased node ID
+     * @param owner       the owner of the lease
+     * @param leasedUntil the new expiry of the lease
+     * @return the number of rows updated, zero if the lease has been lost
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE NodeLease n SET n.leasedUntil = :leasedUntil WHERE n.nodeId = :nodeId AND n.owner = :owner")
+    int renew(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leasedUntil") LocalDateTime leasedUntil);
+}
@@ -1,7 +1,9 @@
 package org.training.sequence.generator.reporitory;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.training.sequence.generator.model.entity.Sequence;
 
 public interface SequenceRepository extends JpaRepository<Sequence, Long> {
@@ -11,4 +13,15 @@ public interface SequenceRepository extends JpaRepository<Sequence, Long> {
 
     Sequence findFirstByOrderBySequenceIdDesc();
 
+    /**
+     * Raises the account number of a legacy counter row, leaving it untouched if it is already higher.
+     *
+     * @param sequenceId    the ID of the counter row
+     * @param accountNumber the account number to raise the counter to
+     * @return the number of rows updated, zero if the row does not exist or is already higher
+     */
+    @Modifying
+    @Query("UPDATE Sequence s SET s.accountNumber = :accountNumber WHERE s.sequenceId = :sequenceId AND s.accountNumber < :accountNumber")
+    int raiseTo(@Param("sequenceId") long sequenceId, @Param("accountNumber") long accountNumber);
+
 }
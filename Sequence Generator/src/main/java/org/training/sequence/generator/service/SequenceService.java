@@ -1,8 +1,35 @@
 package org.training.sequence.generator.service;
 
+import org.training.sequence.generator.model.dto.SequenceRange;
+import org.training.sequence.generator.model.dto.SequenceValue;
 import org.training.sequence.generator.model.entity.Sequence;
 
 public interface SequenceService {
 
     Sequence create();
+
+    /**
+     * Reserves a contiguous range of account numbers.
+     *
+     * @param count the number of account numbers to reserve
+     * @return the reserved range
+     */
+    SequenceRange createRange(int count);
+
+    /**
+     * Generates the next value of a named sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the generated value
+     */
+    SequenceValue next(String sequenceName);
+
+    /**
+     * Reserves a contiguous range of values from a named sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @param count        the number of values to reserve
+     * @return the reserved range
+     */
+    SequenceRange createRange(String sequenceName, int count);
 }
@@ -0,0 +1,118 @@
+package org.training.sequence.generator.service.implementation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.sequence.generator.allocator.SnowflakeSequenceAllocator;
+import org.training.sequence.generator.reporitory.NodeLeaseRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Leases a unique snowflake node ID from the database, so replicas never generate the same IDs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NodeLeaseManager {
+
+    private final NodeLeaseRepository nodeLeaseRepository;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${sequence.node-lease.lease-millis}")
+    private long leaseMillis;
+
+    private volatile int nodeId = -1;
+
+    private volatile long heldUntil;
+
+    /**
+     * Leases the first node ID that is free or whose lease has expired.
+     *
+     * @return the leased node ID
+     * @throws IllegalStateException if every node ID is leased
+     */
+    public synchronized int acquire() {
+
+        if (nodeId >= 0) {
+            return nodeId;
+        }
+        for (int candidate = 0; candidate <= SnowflakeSequenceAllocator.MAX_NODE_ID; candidate++) {
+            long until = System.currentTimeMillis() + leaseMillis;
+            if (tryLease(candidate, until)) {
+                heldUntil = until;
+                nodeId = candidate;
+                log.info("leased snowflake node id {}", candidate);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("no free snowflake node id available");
+    }
+
+    /**
+     * Tells whether the lease is still valid locally, without touching the database.
+     *
+     * @return true while the lease has not expired
+     */
+    public boolean isHeld() {
+        return nodeId >= 0 && System.currentTimeMillis() < heldUntil;
+    }
+
+    /**
+     * Extends the lease well before it expires.
+     */
+    @Scheduled(fixedRateString = "${sequence.node-lease.renew-millis}")
+    public void renew() {
+
+        if (nodeId < 0) {
+            return;
+        }
+        long until = System.currentTimeMillis() + leaseMillis;
+        try {
+            if (nodeLeaseRepository.renew(nodeId, owner, toDateTime(until)) == 1) {
+                heldUntil = until;
+            } else {
+                log.error("snowflake node id {} has been taken over by another instance", nodeId);
+                heldUntil = 0;
+            }
+        } catch (Exception exception) {
+            log.error("unable to renew the lease of snowflake node id {}", nodeId, exception);
+        }
+    }
+
+    /**
+     * Gives the node ID back on shutdown, so a restarted instance can reuse it immediately.
+     */
+    @PreDestroy
+    public void release() {
+
+        if (nodeId >= 0) {
+            nodeLeaseRepository.renew(nodeId, owner, LocalDateTime.now().minusSeconds(1));
+        }
+    }
+
+    private boolean tryLease(int candidate, long until) {
+
+        LocalDateTime leasedUntil = toDateTime(until);
+        if (nodeLeaseRepository.existsById(candidate)) {
+            return nodeLeaseRepository.takeOver(candidate, owner, leasedUntil, LocalDateTime.now()) == 1;
+        }
+        try {
+            return nodeLeaseRepository.lease(candidate, owner, leasedUntil) == 1;
+        } catch (DataIntegrityViolationException exception) {
+            return false;
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,90 @@
+package org.training.sequence.generator.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.sequence.generator.model.entity.Sequence;
+import org.training.sequence.generator.reporitory.NamedSequenceRepository;
+import org.training.sequence.generator.reporitory.SequenceRepository;
+
+import static org.training.sequence.generator.model.Constants.ACCOUNT_NUMBER_SEQUENCE;
+import static org.training.sequence.generator.model.Constants.LEGACY_ACCOUNT_SEQUENCE_ID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SequenceReserver {
+
+    private final NamedSequenceRepository namedSequenceRepository;
+    private final SequenceRepository sequenceRepository;
+
+    /**
+     * Reserves a contiguous range of values from a named sequence.
+     * The update takes the row lock, so the high-water mark read back in the same transaction
+     * belongs exclusively to this reservation. Reservations of the account number sequence also raise the legacy
+     * counter, see {@link #keepLegacyCounterInStep(String, long)}.
+     *
+     * @param sequenceName the name of the sequence
+     * @param size         the number of values to reserve
+     * @return the new high-water mark, i.e. the last value of the reserved range
+     */
+    @Transactional
+    public long reserve(String sequenceName, long size) {
+
+        if (namedSequenceRepository.advance(sequenceName, size) == 0) {
+            log.info("initialising sequence {}", sequenceName);
+            namedSequenceRepository.initialise(sequenceName, initialValue(sequenceName));
+            namedSequenceRepository.advance(sequenceName, size);
+        }
+        long highWaterMark = namedSequenceRepository.findHighWaterMarkBySequenceName(sequenceName);
+        keepLegacyCounterInStep(sequenceName, highWaterMark);
+        return highWaterMark;
+    }
+
+    /**
+     * Raises the high-water mark of a sequence to a value reserved outside the database.
+     *
+     * @param sequenceName  the name of the sequence
+     * @param highWaterMark the high-water mark to raise the sequence to
+     */
+    @Transactional
+    public void raiseTo(String sequenceName, long highWaterMark) {
+
+        reserve(sequenceName, 0L);
+        namedSequenceRepository.raiseTo(sequenceName, highWaterMark);
+        keepLegacyCounterInStep(sequenceName, highWaterMark);
+    }
+
+    /**
+     * Raises the legacy single-row counter to the high-water mark of the account number sequence, in the transaction
+     * of the reservation, so a rollback to the version serving account numbers from that row continues after every
+     * reserved account number instead of issuing them again. A journaled sequence only reaches the database when it
+     * is seeded and when the service stops, so its counter is only in step after a clean shutdown.
+     */
+    private void keepLegacyCounterInStep(String sequenceName, long highWaterMark) {
+
+        if (!ACCOUNT_NUMBER_SEQUENCE.equals(sequenceName)) {
+            return;
+        }
+        if (sequenceRepository.raiseTo(LEGACY_ACCOUNT_SEQUENCE_ID, highWaterMark) == 0 && sequenceRepository.countAll() == 0) {
+            sequenceRepository.save(Sequence.builder().accountNumber(highWaterMark).build());
+        }
+    }
+
+    /**
+     * The account number sequence continues from the legacy single-row counter.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the high-water mark a new sequence starts from
+     */
+    private long initialValue(String sequenceName) {
+
+        if (!ACCOUNT_NUMBER_SEQUENCE.equals(sequenceName)) {
+            return 0L;
+        }
+        return sequenceRepository.findById(LEGACY_ACCOUNT_SEQUENCE_ID)
+                .map(Sequence::getAccountNumber)
+                .orElse(0L);
+    }
+}
@@ -1,18 +1,86 @@
 package org.training.sequence.generator.service.implementation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.training.sequence.generator.allocator.BlockSequenceAllocator;
+import org.training.sequence.generator.allocator.GaplessSequenceAllocator;
+import org.training.sequence.generator.allocator.MappedSequenceJournal;
+import org.training.sequence.generator.allocator.SequenceAllocator;
+import org.training.sequence.generator.allocator.SnowflakeSequenceAllocator;
+import org.training.sequence.generator.configuration.SequenceProperties;
+import org.training.sequence.generator.exception.InvalidRangeException;
+import org.training.sequence.generator.exception.ResourceNotFound;
+import org.training.sequence.generator.model.FsyncPolicy;
+import org.training.sequence.generator.model.dto.SequenceRange;
+import org.training.sequence.generator.model.dto.SequenceValue;
 import org.training.sequence.generator.model.entity.Sequence;
-import org.training.sequence.generator.reporitory.SequenceRepository;
 import org.training.sequence.generator.service.SequenceService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+
+import static org.training.sequence.generator.model.Constants.ACCOUNT_NUMBER_SEQUENCE;
+import static org.training.sequence.generator.model.Constants.LEGACY_ACCOUNT_SEQUENCE_ID;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SequenceServiceImpl implements SequenceService {
 
-    private final SequenceRepository sequenceRepository;
+    private final SequenceReserver sequenceReserver;
+    private final NodeLeaseManager nodeLeaseManager;
+    private final SequenceProperties sequenceProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SequenceAllocator> allocators = new HashMap<>();
+
+    private final Map<String, LongUnaryOperator> reservers = new HashMap<>();
+
+    private MappedSequenceJournal journal;
+
+    /**
+     * Sets up an allocator with its own in-memory state for every configured sequence.
+     */
+    @PostConstruct
+    public void init() {
+
+        if (sequenceProperties.getDefinitions().values().stream().anyMatch(SequenceProperties.Definition::isJournaled)) {
+            journal = openJournal(sequenceProperties.getJournal());
+        }
+        sequenceProperties.getDefinitions().forEach((sequenceName, definition) -> {
+            log.info("serving sequence {} with the {} strategy", sequenceName, definition.getStrategy());
+            LongUnaryOperator reserver = createReserver(sequenceName, definition);
+            reservers.put(sequenceName, reserver);
+            allocators.put(sequenceName, createAllocator(sequenceName, definition, reserver));
+        });
+    }
+
+    /**
+     * Copies the journaled high-water marks back to the database, so the sequences can also be
+     * served from the database later on, and closes the journal.
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+
+        if (journal == null) {
+            return;
+        }
+        sequenceProperties.getDefinitions().forEach((sequenceName, definition) -> {
+            long highWaterMark = journal.highWaterMark(sequenceName);
+            if (definition.isJournaled() && highWaterMark >= 0) {
+                sequenceReserver.raiseTo(sequenceName, highWaterMark);
+            }
+        });
+        journal.close();
+    }
 
     /**
      * Create a new account number.
@@ -23,10 +91,103 @@ public class SequenceServiceImpl implements SequenceService {
     public Sequence create() {
 
         log.info("creating a account number");
-        return sequenceRepository.findById(1L)
-                .map(sequence -> {
-                    sequence.setAccountNumber(sequence.getAccountNumber() + 1);
-                    return sequenceRepository.save(sequence);
-                }).orElseGet(() -> sequenceRepository.save(Sequence.builder().accountNumber(1L).build()));
+        return Sequence.builder()
+                .sequenceId(LEGACY_ACCOUNT_SEQUENCE_ID)
+                .accountNumber(allocator(ACCOUNT_NUMBER_SEQUENCE).next()).build();
+    }
+
+    /**
+     * Reserves a contiguous range of account numbers.
+     *
+     * @param count the number of account numbers to reserve
+     * @return the reserved range
+     */
+    @Override
+    public SequenceRange createRange(int count) {
+        return createRange(ACCOUNT_NUMBER_SEQUENCE, count);
+    }
+
+    /**
+     * Generates the next value of a named sequence.
+     * Values are served from memory for the block and snowflake strategies, the database is only
+     * hit once per block or not at all for snowflake IDs.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the generated value
+     * @throws ResourceNotFound if the sequence is not configured
+     */
+    @Override
+    public SequenceValue next(String sequenceName) {
+
+        return SequenceValue.builder()
+                .sequenceName(sequenceName)
+                .value(allocator(sequenceName).next()).build();
+    }
+
+    /**
+     * Reserves a contiguous range of values with a single database reservation.
+     * The range bypasses the in-memory block, so it never overlaps values served by {@link #next(String)};
+     * snowflake IDs start far above any value the database counter can reach.
+     *
+     * @param sequenceName the name of the sequence
+     * @param count        the number of values to reserve
+     * @return the reserved range
+     * @throws ResourceNotFound      if the sequence is not configured
+     * @throws InvalidRangeException if the count is not between one and the configured maximum
+     */
+    @Override
+    public SequenceRange createRange(String sequenceName, int count) {
+
+        allocator(sequenceName);
+        if (count < 1 || count > sequenceProperties.getMaxRange()) {
+            throw new InvalidRangeException("count should be between 1 and " + sequenceProperties.getMaxRange());
+        }
+        log.info("creating a range of {} values from sequence {}", count, sequenceName);
+        long end = reservers.get(sequenceName).applyAsLong(count);
+        return SequenceRange.builder()
+                .start(end - count + 1)
+                .count(count).build();
+    }
+
+    private SequenceAllocator allocator(String sequenceName) {
+
+        SequenceAllocator allocator = allocators.get(sequenceName);
+        if (allocator == null) {
+            throw new ResourceNotFound("Sequence " + sequenceName + " not found on the server");
+        }
+        return allocator;
+    }
+
+    /**
+     * Journaled sequences reserve from the local journal, which is seeded from the database the first time.
+     */
+    private LongUnaryOperator createReserver(String sequenceName, SequenceProperties.Definition definition) {
+
+        if (definition.isJournaled()) {
+            return size -> journal.reserve(sequenceName, size, () -> sequenceReserver.reserve(sequenceName, 0L));
+        }
+        return size -> sequenceReserver.reserve(sequenceName, size);
+    }
+
+    private SequenceAllocator createAllocator(String sequenceName, SequenceProperties.Definition definition,
+                                              LongUnaryOperator reserver) {
+
+        return switch (definition.getStrategy()) {
+            case GAPLESS -> new GaplessSequenceAllocator(reserver);
+            case BLOCK -> new BlockSequenceAllocator(sequenceName, definition.getBlockSize(), reserver, meterRegistry);
+            case SNOWFLAKE -> new SnowflakeSequenceAllocator(nodeLeaseManager.acquire(),
+                    nodeLeaseManager::isHeld, System::currentTimeMillis);
+        };
+    }
+
+    private static MappedSequenceJournal openJournal(SequenceProperties.Journal properties) {
+
+        try {
+            log.info("journaling sequences to {} with the {} fsync policy", properties.getPath(), properties.getFsync());
+            return new MappedSequenceJournal(Path.of(properties.getPath()), properties.getSlots(),
+                    properties.getFsync() == FsyncPolicy.PER_BLOCK);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("unable to open the sequence journal", exception);
+        }
     }
 }
@@ -0,0 +1,89 @@
+package org.training.sequence.generator.allocator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedSequenceJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumesPastTheLastMarkAfterAnUnforcedWrite() throws IOException {
+
+        Path path = directory.resolve("sequences.journal");
+        MappedSequenceJournal crashed = new MappedSequenceJournal(path, 4, false);
+        crashed.reserve("account", 100, () -> 1000);
+        crashed.reserve("account", 100, () -> 0);
+        crashed.reserve("transaction", 50, () -> 0);
+
+        // The first journal is never forced nor closed, as after a process crash.
+        try (MappedSequenceJournal recovered = new MappedSequenceJournal(path, 4, false)) {
+            assertEquals(1200, recovered.highWaterMark("account"));
+            assertEquals(50, recovered.highWaterMark("transaction"));
+            assertEquals(1300, recovered.reserve("account", 100, () -> 0));
+        }
+    }
+
+    @Test
+    void resumesPastTheLastMarkAfterAForcedWrite() throws IOException {
+
+        Path path = directory.resolve("sequences.journal");
+        try (MappedSequenceJournal journal = new MappedSequenceJournal(path, 4, true)) {
+            journal.reserve("account", 10, () -> 5);
+        }
+
+        try (MappedSequenceJournal recovered = new MappedSequenceJournal(path, 4, true)) {
+            assertEquals(15, recovered.highWaterMark("account"));
+            assertEquals(-1, recovered.highWaterMark("transaction"));
+        }
+    }
+
+    @Test
+    void reusesASlotWhoseNameWasNeverWritten() throws IOException {
+
+        Path path = directory.resolve("sequences.journal");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // A mark without a name, as left by a crash between writing the mark and the name of a new sequence.
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 999), 56);
+        }
+
+        try (MappedSequenceJournal journal = new MappedSequenceJournal(path, 1, false)) {
+            assertEquals(-1, journal.highWaterMark("account"));
+            assertEquals(10, journal.reserve("account", 10, () -> 0));
+        }
+    }
+
+    @Test
+    void keepsTheSlotsOfALargerExistingJournal() throws IOException {
+
+        Path path = directory.resolve("sequences.journal");
+        try (MappedSequenceJournal journal = new MappedSequenceJournal(path, 2, false)) {
+            journal.reserve("first", 1, () -> 0);
+            journal.reserve("second", 2, () -> 0);
+        }
+
+        try (MappedSequenceJournal journal = new MappedSequenceJournal(path, 1, false)) {
+            assertEquals(1, journal.highWaterMark("first"));
+            assertEquals(2, journal.highWaterMark("second"));
+            assertThrows(IllegalStateException.class, () -> journal.reserve("third", 1, () -> 0));
+        }
+    }
+
+    @Test
+    void rejectsNamesLongerThanASlot() throws IOException {
+
+        try (MappedSequenceJournal journal = new MappedSequenceJournal(directory.resolve("sequences.journal"), 1, false)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.reserve("x".repeat(57), 1, () -> 0));
+        }
+    }
+}
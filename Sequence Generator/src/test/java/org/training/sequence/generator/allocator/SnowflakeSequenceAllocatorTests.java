@@ -0,0 +1,135 @@
+package org.training.sequence.generator.allocator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.sequence.generator.reporitory.NodeLeaseRepository;
+import org.training.sequence.generator.service.implementation.NodeLeaseManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SnowflakeSequenceAllocatorTests {
+
+    private static final long NOW = SnowflakeSequenceAllocator.EPOCH + 1_000_000;
+
+    private static final long COUNTER_VALUES = 1L << SnowflakeSequenceAllocator.COUNTER_BITS;
+
+    @Test
+    void packsTimestampNodeAndCounter() {
+
+        SnowflakeSequenceAllocator allocator = new SnowflakeSequenceAllocator(5, () -> true, () -> NOW);
+
+        long first = allocator.next();
+        long second = allocator.next();
+
+        assertEquals(NOW - SnowflakeSequenceAllocator.EPOCH, timestamp(first));
+        assertEquals(5, node(first));
+        assertEquals(0, counter(first));
+        assertEquals(1, counter(second));
+    }
+
+    @Test
+    void keepsIncreasingWhenTheClockStepsBack() {
+
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeSequenceAllocator allocator = new SnowflakeSequenceAllocator(1, () -> true, clock::get);
+
+        long beforeRollback = allocator.next();
+        clock.set(NOW - 5_000);
+        long duringRollback = allocator.next();
+        clock.set(NOW + 1);
+        long afterRecovery = allocator.next();
+
+        assertTrue(duringRollback > beforeRollback);
+        assertEquals(timestamp(beforeRollback), timestamp(duringRollback));
+        assertTrue(afterRecovery > duringRollback);
+        assertEquals(NOW + 1 - SnowflakeSequenceAllocator.EPOCH, timestamp(afterRecovery));
+    }
+
+    @Test
+    void waitsForTheNextMillisecondOnceTheCounterIsExhausted() {
+
+        AtomicLong reads = new AtomicLong();
+        SnowflakeSequenceAllocator allocator = new SnowflakeSequenceAllocator(1, () -> true,
+                () -> reads.incrementAndGet() <= COUNTER_VALUES + 3 ? NOW : NOW + 1);
+
+        long previous = -1;
+        for (long issued = 0; issued < COUNTER_VALUES; issued++) {
+            long id = allocator.next();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        long next = allocator.next();
+
+        assertEquals(COUNTER_VALUES - 1, counter(previous));
+        assertEquals(NOW + 1 - SnowflakeSequenceAllocator.EPOCH, timestamp(next));
+        assertEquals(0, counter(next));
+    }
+
+    @Test
+    void refusesToAllocateOnceTheLeaseIsLost() {
+
+        AtomicBoolean leaseHeld = new AtomicBoolean(true);
+        SnowflakeSequenceAllocator allocator = new SnowflakeSequenceAllocator(1, leaseHeld::get, () -> NOW);
+
+        allocator.next();
+        leaseHeld.set(false);
+
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeSequenceAllocator(-1, () -> true, () -> NOW));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeSequenceAllocator(SnowflakeSequenceAllocator.MAX_NODE_ID + 1, () -> true, () -> NOW));
+    }
+
+    @Test
+    void leasesTheFirstFreeNodeIdAndStopsWhenTheRenewalIsRefused() {
+
+        NodeLeaseRepository nodeLeaseRepository = mock(NodeLeaseRepository.class);
+        when(nodeLeaseRepository.existsById(0)).thenReturn(true);
+        when(nodeLeaseRepository.takeOver(eq(0), anyString(), any(), any())).thenReturn(0);
+        when(nodeLeaseRepository.existsById(1)).thenReturn(false);
+        when(nodeLeaseRepository.lease(eq(1), anyString(), any())).thenReturn(1);
+        NodeLeaseManager nodeLeaseManager = new NodeLeaseManager(nodeLeaseRepository);
+        ReflectionTestUtils.setField(nodeLeaseManager, "leaseMillis", 60_000L);
+
+        int nodeId = nodeLeaseManager.acquire();
+        SnowflakeSequenceAllocator allocator = new SnowflakeSequenceAllocator(nodeId, nodeLeaseManager::isHeld, System::currentTimeMillis);
+
+        assertEquals(1, nodeId);
+        assertEquals(1, node(allocator.next()));
+
+        when(nodeLeaseRepository.renew(anyInt(), anyString(), any())).thenReturn(0);
+        nodeLeaseManager.renew();
+
+        assertFalse(nodeLeaseManager.isHeld());
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    private static long timestamp(long id) {
+        return id >>> (SnowflakeSequenceAllocator.NODE_BITS + SnowflakeSequenceAllocator.COUNTER_BITS);
+    }
+
+    private static long node(long id) {
+        return (id >>> SnowflakeSequenceAllocator.COUNTER_BITS) & SnowflakeSequenceAllocator.MAX_NODE_ID;
+    }
+
+    private static long counter(long id) {
+        return id & (COUNTER_VALUES - 1);
+    }
+}
@@ -0,0 +1,88 @@
+package org.training.sequence.generator.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.training.sequence.generator.model.entity.Sequence;
+import org.training.sequence.generator.reporitory.NamedSequenceRepository;
+import org.training.sequence.generator.reporitory.SequenceRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.training.sequence.generator.model.Constants.ACCOUNT_NUMBER_SEQUENCE;
+import static org.training.sequence.generator.model.Constants.LEGACY_ACCOUNT_SEQUENCE_ID;
+
+class SequenceReserverTests {
+
+    private final NamedSequenceRepository namedSequenceRepository = mock(NamedSequenceRepository.class);
+
+    private final SequenceRepository sequenceRepository = mock(SequenceRepository.class);
+
+    private final SequenceReserver sequenceReserver = new SequenceReserver(namedSequenceRepository, sequenceRepository);
+
+    @BeforeEach
+    void setUp() {
+
+        when(namedSequenceRepository.advance(any(), anyLong())).thenReturn(1);
+        when(namedSequenceRepository.findHighWaterMarkBySequenceName(ACCOUNT_NUMBER_SEQUENCE)).thenReturn(1100L);
+        when(namedSequenceRepository.findHighWaterMarkBySequenceName("transfer-reference")).thenReturn(100L);
+    }
+
+    @Test
+    void raisesTheLegacyCounterWithEveryAccountNumberReservation() {
+
+        when(sequenceRepository.raiseTo(LEGACY_ACCOUNT_SEQUENCE_ID, 1100L)).thenReturn(1);
+
+        assertEquals(1100L, sequenceReserver.reserve(ACCOUNT_NUMBER_SEQUENCE, 100));
+
+        verify(sequenceRepository).raiseTo(LEGACY_ACCOUNT_SEQUENCE_ID, 1100L);
+        verify(sequenceRepository, never()).save(any());
+    }
+
+    @Test
+    void createsTheLegacyCounterWhenThereIsNone() {
+
+        when(sequenceRepository.countAll()).thenReturn(0);
+
+        sequenceReserver.reserve(ACCOUNT_NUMBER_SEQUENCE, 100);
+
+        verify(sequenceRepository).save(Sequence.builder().accountNumber(1100L).build());
+    }
+
+    @Test
+    void leavesAHigherLegacyCounterAlone() {
+
+        when(sequenceRepository.countAll()).thenReturn(1);
+
+        sequenceReserver.reserve(ACCOUNT_NUMBER_SEQUENCE, 100);
+
+        verify(sequenceRepository, never()).save(any());
+    }
+
+    @Test
+    void leavesTheLegacyCounterOutOfOtherSequences() {
+
+        sequenceReserver.reserve("transfer-reference", 100);
+
+        verify(sequenceRepository, never()).raiseTo(anyLong(), anyLong());
+        verify(sequenceRepository, never()).findById(any());
+    }
+
+    @Test
+    void startsTheAccountNumberSequenceFromTheLegacyCounter() {
+
+        when(namedSequenceRepository.advance(ACCOUNT_NUMBER_SEQUENCE, 100)).thenReturn(0).thenReturn(1);
+        when(sequenceRepository.findById(LEGACY_ACCOUNT_SEQUENCE_ID))
+                .thenReturn(Optional.of(Sequence.builder().sequenceId(LEGACY_ACCOUNT_SEQUENCE_ID).accountNumber(1000L).build()));
+
+        sequenceReserver.reserve(ACCOUNT_NUMBER_SEQUENCE, 100);
+
+        verify(namedSequenceRepository).initialise(ACCOUNT_NUMBER_SEQUENCE, 1000L);
+    }
+}
@@ -0,0 +1,164 @@
+package org.training.transactions.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.tools.Server;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.training.transactions.configuration.PooledTableIdGenerator;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of bulk transaction inserts through Hibernate, with the previous identity column IDs, which
+ * rule out JDBC batching, compared with the pooled table IDs and JDBC batching. The database is H2 in MySQL mode
+ * behind its TCP server, so every statement round trip goes over the loopback interface; MySQL with
+ * {@code rewriteBatchedStatements} additionally folds a batch into a single multi-row insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TransactionInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"IDENTITY", "POOLED"})
+    private String idGeneration;
+
+    private Server server;
+
+    private JdbcConnectionPool dataSource;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        dataSource = JdbcConnectionPool.create("jdbc:h2:tcp://localhost:" + server.getPort() +
+                "/mem:insert_benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+
+        Configuration configuration = new Configuration();
+        configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+        if (idGeneration.equals("IDENTITY")) {
+            configuration.addAnnotatedClass(IdentityTransaction.class);
+        } else {
+            configuration.addAnnotatedClass(org.training.transactions.model.entity.Transaction.class)
+                    .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                    .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                    .setProperty(PooledTableIdGenerator.INCREMENT_SIZE_SETTING, String.valueOf(BATCH_SIZE));
+        }
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        sessionFactory.close();
+        dataSource.dispose();
+        server.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertTransactions() {
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int row = 0; row < ROWS; row++) {
+                session.persist(idGeneration.equals("IDENTITY") ? identityTransaction(row) : pooledTransaction(row));
+            }
+            transaction.commit();
+        }
+    }
+
+    private static org.training.transactions.model.entity.Transaction pooledTransaction(int row) {
+
+        return org.training.transactions.model.entity.Transaction.builder()
+                .referenceId("benchmark")
+                .accountId(String.valueOf(row % 100))
+                .transactionType(TransactionType.INTERNAL_TRANSFER)
+                .amount(BigDecimal.valueOf(row))
+                .status(TransactionStatus.COMPLETED).build();
+    }
+
+    private static IdentityTransaction identityTransaction(int row) {
+
+        IdentityTransaction transaction = new IdentityTransaction();
+        transaction.referenceId = "benchmark";
+        transaction.accountId = String.valueOf(row % 100);
+        transaction.transactionType = TransactionType.INTERNAL_TRANSFER;
+        transaction.amount = BigDecimal.valueOf(row);
+        transaction.transactionDate = LocalDateTime.now();
+        transaction.status = TransactionStatus.COMPLETED;
+        return transaction;
+    }
+
+    /**
+     * The transaction mapping as it was with an identity column.
+     */
+    @Entity
+    @Table(name = "transaction")
+    public static class IdentityTransaction {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long transactionId;
+
+        String referenceId;
+
+        String accountId;
+
+        @Enumerated(EnumType.STRING)
+        TransactionType transactionType;
+
+        BigDecimal amount;
+
+        LocalDateTime transactionDate;
+
+        @Enumerated(EnumType.STRING)
+        TransactionStatus status;
+
+        String comments;
+    }
+}
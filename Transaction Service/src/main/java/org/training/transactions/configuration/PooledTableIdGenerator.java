@@ -0,0 +1,47 @@
+package org.training.transactions.configuration;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Hands out IDs from blocks reserved in the {@code id_generator} table, so an entity gets its ID without
+ * an insert round trip and Hibernate can batch the inserts, which an identity column rules out.
+ * The pooled-lo optimizer reserves a block starting at the stored value, so the block size set by the
+ * {@value #INCREMENT_SIZE_SETTING} Hibernate setting can be changed between restarts without reusing IDs.
+ */
+public class PooledTableIdGenerator extends TableGenerator implements AnnotationBasedGenerator<PooledTableId> {
+
+    public static final String INCREMENT_SIZE_SETTING = "id-generator.increment-size";
+
+    private static final String TABLE = "id_generator";
+
+    private static final int DEFAULT_INCREMENT_SIZE = 50;
+
+    private String segment;
+
+    @Override
+    public void initialize(PooledTableId annotation, Member member, GeneratorCreationContext context) {
+        segment = annotation.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+
+        int incrementSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(INCREMENT_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_INCREMENT_SIZE);
+        parameters.setProperty(TABLE_PARAM, TABLE);
+        parameters.setProperty(SEGMENT_VALUE_PARAM, segment);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(incrementSize));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -2,14 +2,22 @@ package org.training.transactions.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.training.transactions.idempotency.IdempotentRequests;
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearch;
 import org.training.transactions.model.response.Response;
+import org.training.transactions.model.response.TransactionPage;
 import org.training.transactions.model.response.TransactionRequest;
 import org.training.transactions.service.TransactionService;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -19,28 +27,40 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotentRequests idempotentRequests;
 
     /**
      * Add transactions to the system.
+     * A retry carrying the same idempotency key is answered with the original response without adding the transaction again,
+     * and the key cannot be reused for a different transaction.
      *
      * @param transactionDto The transaction data to be added.
+     * @param idempotencyKey The optional idempotency key of the request.
      * @return The response entity with the added transaction data.
      */
     @PostMapping
-    public ResponseEntity<Response> addTransactions(@RequestBody TransactionDto transactionDto) {
-        return new ResponseEntity<>(transactionService.addTransaction(transactionDto), HttpStatus.CREATED);
+    public ResponseEntity<Response> addTransactions(@RequestBody TransactionDto transactionDto,
+                                                    @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return new ResponseEntity<>(idempotentRequests.execute(idempotencyKey, "POST /transactions", transactionDto,
+                sideEffects -> transactionService.addTransaction(transactionDto, sideEffects)), HttpStatus.CREATED);
     }
 
     /**
      * Handles the endpoint for making internal transactions.
+     * A retry carrying the same idempotency key is answered with the original response without recording the transactions again.
      *
      * @param transactionDtos       The list of transaction DTOs.
      * @param transactionReference  The transaction reference.
+     * @param idempotencyKey        The optional idempotency key of the request.
      * @return                      The response entity containing the response.
      */
     @PostMapping("/internal")
-    public ResponseEntity<Response> makeInternalTransaction(@RequestBody List<TransactionDto> transactionDtos,@RequestParam String transactionReference) {
-        return new ResponseEntity<>(transactionService.internalTransaction(transactionDtos, transactionReference), HttpStatus.CREATED);
+    public ResponseEntity<Response> makeInternalTransaction(@RequestBody List<TransactionDto> transactionDtos,@RequestParam String transactionReference,
+                                                            @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return new ResponseEntity<>(idempotentRequests.execute(idempotencyKey, "POST /transactions/internal",
+                List.of(transactionReference, transactionDtos),
+                sideEffects -> transactionService.internalTransaction(transactionDtos, transactionReference, sideEffects)),
+                HttpStatus.CREATED);
     }
 
     /**
@@ -54,6 +74,38 @@ public class TransactionController {
         return new ResponseEntity<>(transactionService.getTransaction(accountId), HttpStatus.OK);
     }
 
+    /**
+     * Retrieves a page of the transaction history of an account, newest first.
+     *
+     * @param transactionSearch The account, the optional filters and the cursor of the page
+     * @return The page of transactions with the cursor of the next page
+     */
+    @GetMapping("/history")
+    public ResponseEntity<TransactionPage> getTransactionHistory(TransactionSearch transactionSearch) {
+        return new ResponseEntity<>(transactionService.getTransactionHistory(transactionSearch), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the full transaction history of an account as newline-delimited JSON, oldest first.
+     * The headers are sent right away and the rows are written while they are read from the database.
+     *
+     * @param accountId The ID of the account
+     * @param fromDate  The earliest transaction date, optional
+     * @param toDate    The latest transaction date, optional
+     * @param response  The response to write the transactions to
+     * @throws IOException if the response cannot be written
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportTransactions(@RequestParam String accountId,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                   HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.flushBuffer();
+        transactionService.exportTransactions(accountId, fromDate, toDate, response.getOutputStream());
+    }
+
     /**
      * Retrieves a list of transaction requests based on the provided transaction reference ID.
      *
@@ -0,0 +1,8 @@
+package org.training.transactions.exception;
+
+public class DuplicateRequestException extends GlobalException {
+
+    public DuplicateRequestException(String message) {
+        super(GlobalErrorCode.CONFLICT, message);
+    }
+}
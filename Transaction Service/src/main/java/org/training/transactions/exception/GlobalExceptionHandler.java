@@ -1,6 +1,7 @@
 package org.training.transactions.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -10,6 +11,23 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    /**
+     * Handles a reused idempotency key, answered with 422 as the request is not the one the key was first used for.
+     *
+     * @param mismatchException The exception to handle.
+     * @return A ResponseEntity containing the error response.
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException mismatchException) {
+
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.builder()
+                        .errorCode(mismatchException.getErrorCode())
+                        .message(mismatchException.getMessage())
+                        .build());
+    }
+
     /**
      * Handles global exceptions and returns a ResponseEntity with an ErrorResponse.
      *
@@ -0,0 +1,8 @@
+package org.training.transactions.exception;
+
+public class IdempotencyKeyMismatchException extends GlobalException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(GlobalErrorCode.UNPROCESSABLE_ENTITY, message);
+    }
+}
@@ -0,0 +1,8 @@
+package org.training.transactions.exception;
+
+public class InvalidLookupException extends GlobalException {
+
+    public InvalidLookupException(String message) {
+        super(GlobalErrorCode.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,8 @@
+package org.training.transactions.exception;
+
+public class WriteBehindUnavailableException extends GlobalException {
+
+    public WriteBehindUnavailableException(String message) {
+        super(GlobalErrorCode.SERVICE_UNAVAILABLE, message);
+    }
+}
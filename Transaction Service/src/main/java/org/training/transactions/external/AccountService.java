@@ -5,7 +5,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.training.transactions.configuration.FeignClientConfiguration;
 import org.training.transactions.model.external.Account;
-import org.training.transactions.model.response.Response;
+import org.training.transactions.model.external.BalanceResponse;
+import org.training.transactions.model.external.BalanceUpdate;
 
 @FeignClient(name = "account-service", configuration = FeignClientConfiguration.class)
 public interface AccountService {
@@ -20,12 +21,12 @@ public interface AccountService {
     ResponseEntity<Account> readByAccountNumber(@RequestParam String accountNumber);
 
     /**
-     * Update an account with the given account number.
+     * Credits or debits the balance of an account with a signed amount.
      *
      * @param accountNumber The account number of the account to be updated.
-     * @param account The updated account information.
-     * @return The response entity containing the response.
+     * @param balanceUpdate The signed amount to apply.
+     * @return The balance of the account after the update.
      */
-    @PutMapping("/accounts")
-    ResponseEntity<Response> updateAccount(@RequestParam String accountNumber, @RequestBody Account account);
+    @PatchMapping("/accounts/balance")
+    ResponseEntity<BalanceResponse> updateBalance(@RequestParam String accountNumber, @RequestBody BalanceUpdate balanceUpdate);
 }
@@ -0,0 +1,20 @@
+package org.training.transactions.external;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.training.transactions.configuration.FeignClientConfiguration;
+import org.training.transactions.model.external.SequenceValue;
+
+@FeignClient(name = "sequence-generator", configuration = FeignClientConfiguration.class)
+public interface SequenceService {
+
+    /**
+     * Generates the next value of a named sequence.
+     *
+     * @param sequenceName the name of the sequence
+     * @return the generated value
+     */
+    @PostMapping("/sequence/{sequenceName}")
+    SequenceValue generateValue(@PathVariable String sequenceName);
+}
@@ -0,0 +1,32 @@
+package org.training.transactions.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.config.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Number of recently answered idempotency keys kept in memory.
+     */
+    private int cacheSize = 10000;
+
+    /**
+     * Time an idempotency key is kept in the database, retries of a request must arrive within it.
+     */
+    private long retentionHours = 48;
+
+    /**
+     * Time a request holds its idempotency key; a retry can take over a longer held key if its request did not
+     * start changing anything yet.
+     */
+    private long leaseSeconds = 60;
+
+    /**
+     * Delay between two purges of the expired idempotency keys.
+     */
+    private long purgeIntervalMillis = 3600000;
+}
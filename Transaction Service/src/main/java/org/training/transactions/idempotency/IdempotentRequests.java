@@ -0,0 +1,259 @@
+package org.training.transactions.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.transactions.exception.DuplicateRequestException;
+import org.training.transactions.exception.IdempotencyKeyMismatchException;
+import org.training.transactions.exception.InvalidLookupException;
+import org.training.transactions.model.entity.IdempotencyKey;
+import org.training.transactions.model.response.Response;
+import org.training.transactions.repository.IdempotencyKeyRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Processes a request at most once per {@code Idempotency-Key}, answering retries with the original response.
+ * A key is claimed in the {@code idempotency_key} table before the request runs, so concurrent retries on any
+ * instance cannot both run it. Recently answered keys are kept in an in-memory LRU, so a replay from the cache is
+ * a single map lookup without a database round trip; they expire from it with the retention of the keys in the table.
+ * <p>
+ * A key is bound to the endpoint and the hash of the request it was first used for, and reusing it for another
+ * request is refused. The claim is a lease: when its holder does not answer within the lease, for instance because
+ * it crashed, a retry takes it over, unless the request had started changing a balance, as running it again could
+ * change the balance twice.
+ */
+@Slf4j
+@Component
+public class IdempotentRequests {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final IdempotencyProperties idempotencyProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, AnsweredRequest> recentResponses;
+
+    private final Counter cacheReplays;
+
+    private final Counter databaseReplays;
+
+    public IdempotentRequests(IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyProperties idempotencyProperties,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        int cacheSize = idempotencyProperties.getCacheSize();
+        this.recentResponses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AnsweredRequest> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.cacheReplays = Counter.builder("transaction.idempotency.replays")
+                .description("Retried requests answered with their original response")
+                .tag("source", "cache")
+                .register(meterRegistry);
+        this.databaseReplays = Counter.builder("transaction.idempotency.replays")
+                .description("Retried requests answered with their original response")
+                .tag("source", "database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the request unless its idempotency key was already answered, in which case the original response is returned.
+     * A request without a key is always run. When the request fails before it starts changing anything, its key is
+     * released so it can be retried; when it fails afterwards, the key is kept and retries are refused.
+     *
+     * @param idempotencyKey the idempotency key of the request, or null
+     * @param endpoint       the endpoint the request was sent to
+     * @param request        the request, hashed to recognise a key reused for another request
+     * @param processor      processes the request, telling the side effects it starts
+     * @return the response of the request, or the original response of a retried request
+     * @throws DuplicateRequestException        if a request with the same key is still being processed, or failed
+     *                                          after it started changing a balance
+     * @throws IdempotencyKeyMismatchException  if the key was used for another endpoint or request
+     * @throws InvalidLookupException           if the key is longer than 255 characters
+     */
+    public Response execute(String idempotencyKey, String endpoint, Object request, Function<SideEffects, Response> processor) {
+
+        if (Objects.isNull(idempotencyKey) || idempotencyKey.isBlank()) {
+            return processor.apply(SideEffects.NONE);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidLookupException("Idempotency key should be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        AnsweredRequest cached = recentResponses.get(idempotencyKey);
+        if (cached != null && cached.createdAt().isBefore(retainedSince())) {
+            recentResponses.remove(idempotencyKey);
+        } else if (cached != null) {
+            checkScope(cached.endpoint(), cached.requestHash(), endpoint, requestHash);
+            cacheReplays.increment();
+            return cached.response();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime createdAt = LocalDateTime.now();
+        try {
+            idempotencyKeyRepository.claim(idempotencyKey, endpoint, requestHash, claimToken, createdAt);
+        } catch (DataIntegrityViolationException exception) {
+            IdempotencyKey claimed = idempotencyKeyRepository.findById(idempotencyKey)
+                    .orElseThrow(() -> new DuplicateRequestException("A request with this idempotency key is in progress"));
+            Optional<Response> replayed = replayOrTakeOver(claimed, endpoint, requestHash, claimToken);
+            if (replayed.isPresent()) {
+                return replayed.get();
+            }
+            createdAt = claimed.getCreatedAt();
+        }
+        ClaimedSideEffects sideEffects = new ClaimedSideEffects(idempotencyKey, claimToken);
+        Response response;
+        try {
+            response = processor.apply(sideEffects);
+        } catch (RuntimeException exception) {
+            if (sideEffects.started) {
+                log.error("request with idempotency key {} failed after it started changing a balance, the key is kept",
+                        idempotencyKey);
+                idempotencyKeyRepository.abandon(idempotencyKey, claimToken);
+            } else {
+                idempotencyKeyRepository.release(idempotencyKey, claimToken);
+            }
+            throw exception;
+        }
+        idempotencyKeyRepository.complete(idempotencyKey, claimToken, response.getResponseCode(), response.getMessage());
+        recentResponses.put(idempotencyKey, new AnsweredRequest(endpoint, requestHash, response, createdAt));
+        return response;
+    }
+
+    /**
+     * Deletes the idempotency keys older than the retention, and evicts their cached responses.
+     */
+    @Scheduled(fixedDelayString = "${app.config.idempotency.purge-interval-millis:3600000}")
+    public void purge() {
+
+        LocalDateTime retainedSince = retainedSince();
+        synchronized (recentResponses) {
+            recentResponses.values().removeIf(answered -> answered.createdAt().isBefore(retainedSince));
+        }
+        int purged = idempotencyKeyRepository.deleteCreatedBefore(retainedSince);
+        if (purged > 0) {
+            log.info("purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Answers a retry of a claimed key with the original response, or takes over the claim when its lease expired
+     * before the request started changing anything.
+     *
+     * @return the original response, or empty if the claim was taken over and the request is to be run
+     */
+    private Optional<Response> replayOrTakeOver(IdempotencyKey claimed, String endpoint, String requestHash, String claimToken) {
+
+        String idempotencyKey = claimed.getIdempotencyKey();
+        checkScope(claimed.getEndpoint(), claimed.getRequestHash(), endpoint, requestHash);
+        if (claimed.getResponseCode() != null) {
+            Response response = Response.builder()
+                    .responseCode(claimed.getResponseCode())
+                    .message(claimed.getMessage()).build();
+            recentResponses.put(idempotencyKey, new AnsweredRequest(endpoint, requestHash, response, claimed.getCreatedAt()));
+            databaseReplays.increment();
+            return Optional.of(response);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minusSeconds(idempotencyProperties.getLeaseSeconds());
+        if (idempotencyKeyRepository.takeOver(idempotencyKey, claimToken, now, expiredBefore) > 0) {
+            log.warn("took over the expired claim of idempotency key {}", idempotencyKey);
+            return Optional.empty();
+        }
+        if (claimed.isSideEffectStarted() && (claimed.getClaimToken() == null || claimed.getClaimedAt().isBefore(expiredBefore))) {
+            throw new DuplicateRequestException("A request with this idempotency key failed after changing the balance, " +
+                    "check the transactions of the account before retrying with a new key");
+        }
+        throw new DuplicateRequestException("A request with this idempotency key is in progress");
+    }
+
+    /**
+     * Refuses a key used for another endpoint or request. Keys claimed before they were scoped are not checked.
+     */
+    private static void checkScope(String claimedEndpoint, String claimedHash, String endpoint, String requestHash) {
+
+        if (claimedHash != null && (!claimedEndpoint.equals(endpoint) || !claimedHash.equals(requestHash))) {
+            throw new IdempotencyKeyMismatchException("The idempotency key was already used for a different request");
+        }
+    }
+
+    /**
+     * Returns the creation time of the oldest idempotency key still retained.
+     */
+    private LocalDateTime retainedSince() {
+        return LocalDateTime.now().minusHours(idempotencyProperties.getRetentionHours());
+    }
+
+    private String hash(Object request) {
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("Unable to hash the request", exception);
+        }
+    }
+
+    private record AnsweredRequest(String endpoint, String requestHash, Response response, LocalDateTime createdAt) {
+    }
+
+    /**
+     * Side effects of a request holding a claim; starting one is refused once the claim was taken over.
+     */
+    private final class ClaimedSideEffects implements SideEffects {
+
+        private final String idempotencyKey;
+
+        private final String claimToken;
+
+        private boolean started;
+
+        private ClaimedSideEffects(String idempotencyKey, String claimToken) {
+
+            this.idempotencyKey = idempotencyKey;
+            this.claimToken = claimToken;
+        }
+
+        @Override
+        public void starting() {
+
+            if (idempotencyKeyRepository.markSideEffect(idempotencyKey, claimToken, true) == 0) {
+                throw new DuplicateRequestException("The request took too long and was taken over by a retry");
+            }
+            started = true;
+        }
+
+        @Override
+        public void rejected() {
+
+            idempotencyKeyRepository.markSideEffect(idempotencyKey, claimToken, false);
+            started = false;
+        }
+    }
+}
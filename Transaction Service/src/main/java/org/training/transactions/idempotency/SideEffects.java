@@ -0,0 +1,35 @@
+package org.training.transactions.idempotency;
+
+/**
+ * Lets a request processed under an idempotency key tell when it starts changing something that a rerun would
+ * change again, such as the balance of an account. A request that fails before that releases its key for a retry;
+ * one that fails after it keeps its key, so a retry cannot apply the change twice.
+ */
+public interface SideEffects {
+
+    /**
+     * Side effects of a request without an idempotency key, which nothing needs to know about.
+     */
+    SideEffects NONE = new SideEffects() {
+
+        @Override
+        public void starting() {
+        }
+
+        @Override
+        public void rejected() {
+        }
+    };
+
+    /**
+     * Called right before the request starts a change.
+     *
+     * @throws org.training.transactions.exception.DuplicateRequestException if a retry took over the request meanwhile
+     */
+    void starting();
+
+    /**
+     * Called when the change just started was rejected without changing anything.
+     */
+    void rejected();
+}
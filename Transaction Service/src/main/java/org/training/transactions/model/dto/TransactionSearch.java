@@ -0,0 +1,34 @@
+package org.training.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.training.transactions.model.TransactionType;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and position of a page of the transaction history of an account; every filter except the account is optional.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionSearch {
+
+    private String accountId;
+
+    private TransactionType transactionType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+
+    private String cursor;
+
+    private Integer size;
+}
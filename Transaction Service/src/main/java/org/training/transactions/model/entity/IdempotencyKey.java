@@ -0,0 +1,48 @@
+package org.training.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key of a transaction request with the response it was answered with; the response is empty while
+ * the request is still being processed. The key is bound to the endpoint and the hash of the request it was first
+ * used for, and the request in progress holds it with a claim token until it is answered.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_idempotency_key_created_at", columnList = "createdAt")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    @Id
+    private String idempotencyKey;
+
+    private String responseCode;
+
+    private String message;
+
+    private LocalDateTime createdAt;
+
+    private String endpoint;
+
+    private String requestHash;
+
+    private String claimToken;
+
+    private LocalDateTime claimedAt;
+
+    private boolean sideEffectStarted;
+}
@@ -5,20 +5,25 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.training.transactions.configuration.PooledTableId;
 import org.training.transactions.model.TransactionStatus;
 import org.training.transactions.model.TransactionType;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_date_id", columnList = "accountId, transactionDate, transactionId"),
+        @Index(name = "idx_transaction_reference_id", columnList = "referenceId")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,7 +31,7 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId("transaction")
     private Long transactionId;
 
     private String referenceId;
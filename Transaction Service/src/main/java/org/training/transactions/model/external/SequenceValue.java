@@ -0,0 +1,11 @@
+package org.training.transactions.model.external;
+
+import lombok.Data;
+
+@Data
+public class SequenceValue {
+
+    private String sequenceName;
+
+    private long value;
+}
@@ -0,0 +1,25 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of the transaction history of an account, newest transaction first.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionPage {
+
+    private List<TransactionRequest> transactions;
+
+    /**
+     * Token to pass as the cursor to fetch the next page, null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,120 @@
+package org.training.transactions.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.transactions.model.entity.IdempotencyKey;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Claims an idempotency key for a request about to be processed.
+     * The key is the primary key, so a concurrent claim of the same key fails with a constraint violation.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param endpoint       the endpoint the request was sent to
+     * @param requestHash    the hash of the request
+     * @param claimToken     the token identifying this claim
+     * @param createdAt      the time of the claim
+     * @return the number of inserted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (idempotency_key, endpoint, request_hash, claim_token, claimed_at, " +
+            "side_effect_started, created_at) " +
+            "VALUES (:idempotencyKey, :endpoint, :requestHash, :claimToken, :createdAt, false, :createdAt)",
+            nativeQuery = true)
+    int claim(@Param("idempotencyKey") String idempotencyKey, @Param("endpoint") String endpoint,
+              @Param("requestHash") String requestHash, @Param("claimToken") String claimToken,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Takes over the claim of an unanswered request whose lease expired before it started changing anything.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param claimToken     the token identifying the new claim
+     * @param claimedAt      the time of the new claim
+     * @param expiredBefore  the time before which a claim is expired
+     * @return the number of updated rows, zero if the claim is still held or cannot be taken over
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.claimToken = :claimToken, k.claimedAt = :claimedAt " +
+            "WHERE k.idempotencyKey = :idempotencyKey AND k.responseCode IS NULL AND k.sideEffectStarted = false " +
+            "AND k.claimedAt < :expiredBefore")
+    int takeOver(@Param("idempotencyKey") String idempotencyKey, @Param("claimToken") String claimToken,
+                 @Param("claimedAt") LocalDateTime claimedAt, @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /**
+     * Records that the request of a claim is about to change something, after which its claim can no longer be
+     * taken over and its key is no longer released when it fails.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param claimToken     the token of the claim
+     * @param started        whether the side effect started, false when it was rejected without any change
+     * @return the number of updated rows, zero if the claim was taken over
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.sideEffectStarted = :started " +
+            "WHERE k.idempotencyKey = :idempotencyKey AND k.claimToken = :claimToken")
+    int markSideEffect(@Param("idempotencyKey") String idempotencyKey, @Param("claimToken") String claimToken,
+                       @Param("started") boolean started);
+
+    /**
+     * Records the response of the request of a claimed idempotency key.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param claimToken     the token of the claim
+     * @param responseCode   the response code of the request
+     * @param message        the response message of the request
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseCode = :responseCode, k.message = :message " +
+            "WHERE k.idempotencyKey = :idempotencyKey AND k.claimToken = :claimToken")
+    int complete(@Param("idempotencyKey") String idempotencyKey, @Param("claimToken") String claimToken,
+                 @Param("responseCode") String responseCode, @Param("message") String message);
+
+    /**
+     * Gives up the claim of a request that failed after it started changing something; the key is kept unanswered,
+     * so the request is neither replayed nor run again with it.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param claimToken     the token of the claim
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.claimToken = NULL " +
+            "WHERE k.idempotencyKey = :idempotencyKey AND k.claimToken = :claimToken")
+    int abandon(@Param("idempotencyKey") String idempotencyKey, @Param("claimToken") String claimToken);
+
+    /**
+     * Releases the key of a request that failed before changing anything, so it can be retried.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param claimToken     the token of the claim
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.idempotencyKey = :idempotencyKey AND k.claimToken = :claimToken")
+    int release(@Param("idempotencyKey") String idempotencyKey, @Param("claimToken") String claimToken);
+
+    /**
+     * Deletes the idempotency keys claimed before the given time.
+     *
+     * @param createdAt the time before which the keys are deleted
+     * @return the number of deleted keys
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :createdAt")
+    int deleteCreatedBefore(@Param("createdAt") LocalDateTime createdAt);
+}
@@ -1,9 +1,21 @@
 package org.training.transactions.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.training.transactions.model.TransactionType;
 import org.training.transactions.model.entity.Transaction;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
@@ -22,4 +34,56 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @return The list of transactions that match the reference ID.
      */
     List<Transaction> findTransactionByReferenceId(String referenceId);
+
+    /**
+     * Finds a page of the transactions of an account that come before the given position, newest first.
+     * The position and the filters are optional; a null value leaves it out. The ordering matches the
+     * (account_id, transaction_date, transaction_id) index, so a page reads only its own rows however deep it is.
+     *
+     * @param accountId       the ID of the account
+     * @param beforeDate      the date of the last transaction of the previous page
+     * @param beforeId        the ID of the last transaction of the previous page
+     * @param transactionType the type of the transactions
+     * @param from            the earliest transaction date, inclusive
+     * @param to              the latest transaction date, exclusive
+     * @param pageable        the size of the page
+     * @return the transactions of the page
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId " +
+            "AND (:beforeDate IS NULL OR t.transactionDate < :beforeDate " +
+            "OR (t.transactionDate = :beforeDate AND t.transactionId < :beforeId)) " +
+            "AND (:transactionType IS NULL OR t.transactionType = :transactionType) " +
+            "AND (:from IS NULL OR t.transactionDate >= :from) " +
+            "AND (:to IS NULL OR t.transactionDate < :to) " +
+            "ORDER BY t.transactionDate DESC, t.transactionId DESC")
+    List<Transaction> findPageBefore(@Param("accountId") String accountId,
+                                     @Param("beforeDate") LocalDateTime beforeDate,
+                                     @Param("beforeId") Long beforeId,
+                                     @Param("transactionType") TransactionType transactionType,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    /**
+     * Streams the transactions of an account in the given date range, oldest first.
+     * Rows are fetched from the database in batches of the fetch size instead of being read into a list, so the
+     * stream must be consumed and closed inside a transaction; MySQL only honours the fetch size when the
+     * connection uses cursor fetching.
+     *
+     * @param accountId the ID of the account
+     * @param from      the earliest transaction date, inclusive, or null
+     * @param to        the latest transaction date, exclusive, or null
+     * @return the stream of transactions
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId " +
+            "AND (:from IS NULL OR t.transactionDate >= :from) " +
+            "AND (:to IS NULL OR t.transactionDate < :to) " +
+            "ORDER BY t.transactionDate, t.transactionId")
+    Stream<Transaction> streamByAccountId(@Param("accountId") String accountId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
 }
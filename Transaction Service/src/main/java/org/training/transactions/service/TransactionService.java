@@ -1,9 +1,15 @@
 package org.training.transactions.service;
 
+import org.training.transactions.idempotency.SideEffects;
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearch;
 import org.training.transactions.model.response.Response;
+import org.training.transactions.model.response.TransactionPage;
 import org.training.transactions.model.response.TransactionRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface TransactionService {
@@ -12,18 +18,20 @@ public interface TransactionService {
      * Adds a transaction.
      *
      * @param transactionDto The transaction to add.
+     * @param sideEffects    Told when the balance of the account starts changing.
      * @return The response indicating whether the transaction was successfully added.
      */
-    Response addTransaction(TransactionDto transactionDto);
+    Response addTransaction(TransactionDto transactionDto, SideEffects sideEffects);
 
     /**
      * Process an internal transaction.
      *
      * @param transactionDtos The list of transaction DTOs to process.
      * @param transactionReference The transaction reference.
+     * @param sideEffects    Told when the transactions start being recorded.
      * @return The response of the internal transaction.
      */
-    Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference);
+    Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference, SideEffects sideEffects);
 
     /**
      * Retrieves a list of transaction requests for a given account ID.
@@ -33,6 +41,25 @@ public interface TransactionService {
      */
     List<TransactionRequest> getTransaction(String accountId);
 
+    /**
+     * Retrieves a page of the transaction history of an account, newest first.
+     *
+     * @param transactionSearch the account, the filters and the position of the page
+     * @return the page of transactions with the cursor of the next page
+     */
+    TransactionPage getTransactionHistory(TransactionSearch transactionSearch);
+
+    /**
+     * Writes the full transaction history of an account to the output stream as newline-delimited JSON, oldest first.
+     *
+     * @param accountId    the ID of the account
+     * @param fromDate     the earliest transaction date, or null
+     * @param toDate       the latest transaction date, or null
+     * @param outputStream the stream to write the transactions to
+     * @throws IOException if the transactions cannot be written
+     */
+    void exportTransactions(String accountId, LocalDate fromDate, LocalDate toDate, OutputStream outputStream) throws IOException;
+
     /**
      * Retrieves a list of transaction requests by transaction reference.
      *
@@ -1,30 +1,48 @@
 package org.training.transactions.service.implementation;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.training.transactions.exception.AccountStatusException;
-import org.training.transactions.exception.GlobalErrorCode;
-import org.training.transactions.exception.InsufficientBalance;
-import org.training.transactions.exception.ResourceNotFound;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.transactions.exception.GlobalException;
+import org.training.transactions.exception.InvalidLookupException;
 import org.training.transactions.external.AccountService;
+import org.training.transactions.external.SequenceService;
+import org.training.transactions.idempotency.SideEffects;
 import org.training.transactions.model.TransactionStatus;
 import org.training.transactions.model.TransactionType;
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearch;
 import org.training.transactions.model.entity.Transaction;
-import org.training.transactions.model.external.Account;
+import org.training.transactions.model.external.BalanceUpdate;
 import org.training.transactions.model.mapper.TransactionMapper;
 import org.training.transactions.model.response.Response;
+import org.training.transactions.model.response.TransactionPage;
 import org.training.transactions.model.response.TransactionRequest;
 import org.training.transactions.repository.TransactionRepository;
 import org.training.transactions.service.TransactionService;
+import org.training.transactions.writebehind.TransactionWriteBehind;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,52 +52,81 @@ public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
+    private final SequenceService sequenceService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<TransactionWriteBehind> transactionWriteBehind;
 
     private final TransactionMapper transactionMapper = new TransactionMapper();
 
+    private static final String REFERENCE_SEQUENCE = "transaction-reference";
+
     @Value("${spring.application.ok}")
     private String ok;
 
+    @Value("${app.config.transaction-history.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${app.config.transaction-history.max-page-size}")
+    private int maxPageSize;
+
     /**
      * Adds a transaction based on the provided TransactionDto.
+     * The balance is updated by the account service with a single signed delta, which checks the account
+     * status and the available balance atomically. With the write-behind enabled, room for the record is reserved
+     * before the balance changes and the record is committed together with other concurrent transactions, the call
+     * still returns only once it is committed. The side effects are told right before the balance update, and again
+     * when the account service rejects it, as a rejected update leaves the balance unchanged.
      *
      * @param  transactionDto  the TransactionDto object containing the transaction details
+     * @param  sideEffects     told when the balance starts changing
      * @return                 a Response object indicating the success of the transaction
-     * @throws ResourceNotFound     if the requested account is not found on the server
-     * @throws AccountStatusException     if the account is inactive or closed
-     * @throws InsufficientBalance     if there is insufficient balance in the account
+     * @throws GlobalException     if the account is not found, is inactive or closed for a withdrawal,
+     *                              or has an insufficient balance
      */
     @Override
-    public Response addTransaction(TransactionDto transactionDto) {
+    public Response addTransaction(TransactionDto transactionDto, SideEffects sideEffects) {
 
-        ResponseEntity<Account> response = accountService.readByAccountNumber(transactionDto.getAccountId());
-        if (Objects.isNull(response.getBody())){
-            throw new ResourceNotFound("Requested account not found on the server", GlobalErrorCode.NOT_FOUND);
-        }
-        Account account = response.getBody();
         Transaction transaction = transactionMapper.convertToEntity(transactionDto);
+        BigDecimal amount = null;
         if(transactionDto.getTransactionType().equals(TransactionType.DEPOSIT.toString())) {
-            account.setAvailableBalance(account.getAvailableBalance().add(transactionDto.getAmount()));
+            amount = transactionDto.getAmount();
         } else if (transactionDto.getTransactionType().equals(TransactionType.WITHDRAWAL.toString())) {
-            if(!account.getAccountStatus().equals("ACTIVE")){
-                log.error("account is either inactive/closed, cannot process the transaction");
-                throw new AccountStatusException("account is inactive or closed");
-            }
-            if(account.getAvailableBalance().compareTo(transactionDto.getAmount()) < 0){
-                log.error("insufficient balance in the account");
-                throw new InsufficientBalance("Insufficient balance in the account");
-            }
-            transaction.setAmount(transactionDto.getAmount().negate());
-            account.setAvailableBalance(account.getAvailableBalance().subtract(transactionDto.getAmount()));
+            amount = transactionDto.getAmount().negate();
+            transaction.setAmount(amount);
         }
 
         transaction.setTransactionType(TransactionType.valueOf(transactionDto.getTransactionType()));
         transaction.setComments(transactionDto.getDescription());
         transaction.setStatus(TransactionStatus.COMPLETED);
-        transaction.setReferenceId(UUID.randomUUID().toString());
+        transaction.setReferenceId(String.valueOf(sequenceService.generateValue(REFERENCE_SEQUENCE).getValue()));
 
-        accountService.updateAccount(transactionDto.getAccountId(), account);
-        transactionRepository.save(transaction);
+        TransactionWriteBehind writeBehind = transactionWriteBehind.getIfAvailable();
+        if (writeBehind != null) {
+            writeBehind.reserve();
+        }
+        if (amount != null) {
+            try {
+                sideEffects.starting();
+                accountService.updateBalance(transactionDto.getAccountId(), BalanceUpdate.builder().amount(amount).build());
+            } catch (GlobalException exception) {
+                if (writeBehind != null) {
+                    writeBehind.cancelReservation();
+                }
+                sideEffects.rejected();
+                throw exception;
+            } catch (RuntimeException exception) {
+                if (writeBehind != null) {
+                    writeBehind.cancelReservation();
+                }
+                throw exception;
+            }
+        }
+        if (writeBehind != null) {
+            writeBehind.save(transaction);
+        } else {
+            transactionRepository.save(transaction);
+        }
 
         return Response.builder()
                 .message("Transaction completed successfully")
@@ -90,11 +137,14 @@ public class TransactionServiceImpl implements TransactionService {
      * Completes the internal transaction by updating the status of each transaction
      * and saving them to the transaction repository.
      *
+     * The transactions are saved in a single database transaction, so a failed save is reported as rejected.
+     *
      * @param transactionDtos the list of transaction DTOs to be processed
+     * @param sideEffects     told when the transactions start being saved
      * @return a response indicating the completion of the transaction
      */
     @Override
-    public Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference) {
+    public Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference, SideEffects sideEffects) {
 
         // Convert the list of transaction DTOs to entities
         List<Transaction> transactions = transactionMapper.convertToEntityList(transactionDtos);
@@ -107,7 +157,13 @@ public class TransactionServiceImpl implements TransactionService {
         });
 
         // Save all the completed transactions to the transaction repository
-        transactionRepository.saveAll(transactions);
+        sideEffects.starting();
+        try {
+            transactionRepository.saveAll(transactions);
+        } catch (RuntimeException exception) {
+            sideEffects.rejected();
+            throw exception;
+        }
 
         // Return the response indicating the completion of the transaction
         return Response.builder()
@@ -125,14 +181,75 @@ public class TransactionServiceImpl implements TransactionService {
     public List<TransactionRequest> getTransaction(String accountId) {
 
         return transactionRepository.findTransactionByAccountId(accountId)
-                .stream().map(transaction -> {
-                    TransactionRequest transactionRequest = new TransactionRequest();
-                    BeanUtils.copyProperties(transaction, transactionRequest);
-                    transactionRequest.setTransactionStatus(transaction.getStatus().toString());
-                    transactionRequest.setLocalDateTime(transaction.getTransactionDate());
-                    transactionRequest.setTransactionType(transaction.getTransactionType().toString());
-                    return transactionRequest;
-                }).collect(Collectors.toList());
+                .stream().map(TransactionServiceImpl::toTransactionRequest).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves a page of the transaction history of an account, newest first.
+     * The cursor holds the date and the ID of the last transaction of the previous page, so each page is an
+     * index range read of its own size instead of an offset that gets slower the deeper the page is.
+     *
+     * @param transactionSearch the account, the filters and the position of the page
+     * @return the page of transactions with the cursor of the next page
+     * @throws InvalidLookupException if the account is missing, or the size or the cursor is invalid
+     */
+    @Override
+    public TransactionPage getTransactionHistory(TransactionSearch transactionSearch) {
+
+        if (Objects.isNull(transactionSearch.getAccountId()) || transactionSearch.getAccountId().isBlank()) {
+            throw new InvalidLookupException("Account id is required");
+        }
+        int size = Objects.isNull(transactionSearch.getSize()) ? defaultPageSize : transactionSearch.getSize();
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidLookupException("Page size should be between 1 and " + maxPageSize);
+        }
+
+        Cursor cursor = decodeCursor(transactionSearch.getCursor());
+        List<Transaction> transactions = transactionRepository.findPageBefore(transactionSearch.getAccountId(),
+                cursor.transactionDate(), cursor.transactionId(), transactionSearch.getTransactionType(),
+                Objects.isNull(transactionSearch.getFromDate()) ? null : transactionSearch.getFromDate().atStartOfDay(),
+                Objects.isNull(transactionSearch.getToDate()) ? null : transactionSearch.getToDate().plusDays(1).atStartOfDay(),
+                PageRequest.ofSize(size + 1));
+        boolean hasNext = transactions.size() > size;
+        List<Transaction> page = hasNext ? transactions.subList(0, size) : transactions;
+
+        return TransactionPage.builder()
+                .transactions(page.stream().map(TransactionServiceImpl::toTransactionRequest).toList())
+                .nextCursor(hasNext ? encodeCursor(page.get(size - 1)) : null).build();
+    }
+
+    /**
+     * Writes the full transaction history of an account to the output stream as newline-delimited JSON, oldest first.
+     * Rows are streamed from the database with a fixed fetch size and detached once written, so the memory used
+     * does not grow with the length of the history.
+     *
+     * @param accountId    the ID of the account
+     * @param fromDate     the earliest transaction date, or null
+     * @param toDate       the latest transaction date, or null
+     * @param outputStream the stream to write the transactions to
+     * @throws IOException if the transactions cannot be written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTransactions(String accountId, LocalDate fromDate, LocalDate toDate, OutputStream outputStream) throws IOException {
+
+        ObjectWriter writer = objectMapper.writerFor(TransactionRequest.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccountId(accountId,
+                Objects.isNull(fromDate) ? null : fromDate.atStartOfDay(),
+                Objects.isNull(toDate) ? null : toDate.plusDays(1).atStartOfDay());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .setRootValueSeparator(null)) {
+            for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                writer.writeValue(generator, toTransactionRequest(transaction));
+                generator.writeRaw('\n');
+                entityManager.detach(transaction);
+                exported++;
+            }
+        }
+        log.info("exported {} transactions of account {}", exported, accountId);
     }
 
     /**
@@ -145,13 +262,41 @@ public class TransactionServiceImpl implements TransactionService {
     public List<TransactionRequest> getTransactionByTransactionReference(String transactionReference) {
 
         return transactionRepository.findTransactionByReferenceId(transactionReference)
-                .stream().map(transaction -> {
-                    TransactionRequest transactionRequest = new TransactionRequest();
-                    BeanUtils.copyProperties(transaction, transactionRequest);
-                    transactionRequest.setTransactionStatus(transaction.getStatus().toString());
-                    transactionRequest.setLocalDateTime(transaction.getTransactionDate());
-                    transactionRequest.setTransactionType(transaction.getTransactionType().toString());
-                    return transactionRequest;
-                }).collect(Collectors.toList());
+                .stream().map(TransactionServiceImpl::toTransactionRequest).collect(Collectors.toList());
+    }
+
+    private static TransactionRequest toTransactionRequest(Transaction transaction) {
+
+        TransactionRequest transactionRequest = new TransactionRequest();
+        BeanUtils.copyProperties(transaction, transactionRequest);
+        transactionRequest.setTransactionStatus(transaction.getStatus().toString());
+        transactionRequest.setLocalDateTime(transaction.getTransactionDate());
+        transactionRequest.setTransactionType(transaction.getTransactionType().toString());
+        return transactionRequest;
+    }
+
+    private static String encodeCursor(Transaction transaction) {
+
+        String position = transaction.getTransactionDate() + "|" + transaction.getTransactionId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+
+        if (Objects.isNull(cursor) || cursor.isBlank()) {
+            return new Cursor(null, null);
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new InvalidLookupException("Invalid cursor");
+            }
+            return new Cursor(LocalDateTime.parse(position[0]), Long.valueOf(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
+            throw new InvalidLookupException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime transactionDate, Long transactionId) {
     }
 }
@@ -0,0 +1,19 @@
+package org.training.transactions.writebehind;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.training.transactions.model.entity.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transaction waiting in the write-behind queue, completed with the saved transaction once its batch is committed.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PendingTransaction {
+
+    private final Transaction transaction;
+
+    private final CompletableFuture<Transaction> result = new CompletableFuture<>();
+}
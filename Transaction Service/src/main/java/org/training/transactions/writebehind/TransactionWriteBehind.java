@@ -0,0 +1,331 @@
+package org.training.transactions.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.transactions.exception.GlobalException;
+import org.training.transactions.exception.WriteBehindUnavailableException;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer of transaction records for deposit bursts.
+ * Accepted transactions wait in a bounded queue; a single flusher thread takes up to a batch of them, waiting at
+ * most the flush interval after the first one, and saves them with one JDBC batch and one commit. A caller is only
+ * acknowledged once the batch holding its transaction is committed, so a record is never reported before it is durable.
+ * <p>
+ * Room in the queue is reserved before the balance of the account is changed, so a request turned away because the
+ * queue is full has not moved any money. A failed batch is written again with a backoff, then transaction by
+ * transaction; a transaction that still cannot be written is appended to a dead-letter file instead of being dropped,
+ * and the dead-letter file is written to the database when the service starts.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.config.write-behind", name = "enabled", havingValue = "true")
+public class TransactionWriteBehind {
+
+    private final TransactionRepository transactionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final WriteBehindProperties writeBehindProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<PendingTransaction> queue;
+
+    private final Semaphore reservations;
+
+    private final Path deadLetterFile;
+
+    private final long flushIntervalNanos;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer flushLatency;
+
+    private final Counter deadLetters;
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public TransactionWriteBehind(TransactionRepository transactionRepository, PlatformTransactionManager transactionManager,
+                                  WriteBehindProperties writeBehindProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehindProperties = writeBehindProperties;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(writeBehindProperties.getQueueCapacity());
+        this.reservations = new Semaphore(writeBehindProperties.getQueueCapacity());
+        this.deadLetterFile = Path.of(writeBehindProperties.getDeadLetterFile());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(writeBehindProperties.getFlushIntervalMillis());
+
+        Gauge.builder("transaction.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Transactions waiting to be written")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("transaction.write-behind.batch.size")
+                .description("Transactions written with a single commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("transaction.write-behind.flush.latency")
+                .description("Time taken to write and commit a batch of transactions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("transaction.write-behind.dead-letters")
+                .description("Transactions appended to the dead-letter file because they could not be written")
+                .register(meterRegistry);
+
+        replayDeadLetters();
+        this.flusher = new Thread(this::run, "transaction-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("write-behind started with batches of up to {} transactions", writeBehindProperties.getBatchSize());
+    }
+
+    /**
+     * Reserves room in the queue for one transaction. Call it before the balance of the account is changed and
+     * follow it with exactly one {@link #save(Transaction)} or {@link #cancelReservation()}.
+     *
+     * @throws WriteBehindUnavailableException if the queue has no room in time or the writer is stopping
+     */
+    public void reserve() {
+
+        try {
+            if (!running || !reservations.tryAcquire(writeBehindProperties.getSubmitTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new WriteBehindUnavailableException("Transaction service is busy, please retry");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new WriteBehindUnavailableException("Interrupted while queueing the transaction");
+        }
+        if (!running) {
+            reservations.release();
+            throw new WriteBehindUnavailableException("Transaction service is busy, please retry");
+        }
+    }
+
+    /**
+     * Gives back a reservation that is not used, because the balance could not be changed.
+     */
+    public void cancelReservation() {
+        reservations.release();
+    }
+
+    /**
+     * Queues a transaction, for which room was reserved, to be written with the next batch.
+     *
+     * @param transaction the transaction to save
+     * @return completes with the saved transaction once its batch is committed or it is dead-lettered
+     */
+    public CompletableFuture<Transaction> submit(Transaction transaction) {
+
+        PendingTransaction pending = new PendingTransaction(transaction);
+        if (!queue.offer(pending)) {
+            throw new IllegalStateException("Transaction queued without a reservation");
+        }
+        return pending.getResult();
+    }
+
+    /**
+     * Saves a transaction, for which room was reserved, with the next batch and waits until it is committed.
+     *
+     * @param transaction the transaction to save
+     * @return the saved transaction
+     */
+    public Transaction save(Transaction transaction) {
+
+        try {
+            return submit(transaction).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof GlobalException globalException) {
+                throw globalException;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Stops taking transactions and writes the reserved and queued ones before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+
+        running = false;
+        flusher.join();
+    }
+
+    private void run() {
+
+        List<PendingTransaction> batch = new ArrayList<>(writeBehindProperties.getBatchSize());
+        try {
+            while (running || reservations.availablePermits() < writeBehindProperties.getQueueCapacity()) {
+                PendingTransaction first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    fill(batch);
+                    flush(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.error("write-behind flusher interrupted with {} transactions queued", queue.size() + batch.size());
+            queue.drainTo(batch);
+            batch.forEach(this::deadLetter);
+        }
+    }
+
+    /**
+     * Adds queued transactions to the batch until it is full or the flush interval after its first transaction is over.
+     */
+    private void fill(List<PendingTransaction> batch) throws InterruptedException {
+
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        int batchSize = writeBehindProperties.getBatchSize();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingTransaction next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Saves the batch in one transaction, which Hibernate sends as one JDBC batch, and only then acknowledges it.
+     * A failed batch is retried with a backoff and then saved transaction by transaction, so one bad transaction
+     * does not fail the others; the ones that still fail are dead-lettered.
+     */
+    private void flush(List<PendingTransaction> batch) throws InterruptedException {
+
+        List<Transaction> transactions = batch.stream().map(PendingTransaction::getTransaction).toList();
+        long backoffMillis = writeBehindProperties.getRetryBackoffMillis();
+        for (int attempt = 1; attempt <= writeBehindProperties.getFlushAttempts(); attempt++) {
+            try {
+                flushLatency.record(() -> write(transactions));
+                batchSizes.record(batch.size());
+                batch.forEach(this::acknowledge);
+                return;
+            } catch (RuntimeException exception) {
+                log.warn("unable to write a batch of {} transactions, attempt {} of {}",
+                        batch.size(), attempt, writeBehindProperties.getFlushAttempts(), exception);
+            }
+            TimeUnit.MILLISECONDS.sleep(backoffMillis);
+            backoffMillis *= 2;
+        }
+
+        for (PendingTransaction pending : batch) {
+            try {
+                write(List.of(pending.getTransaction()));
+                acknowledge(pending);
+            } catch (RuntimeException exception) {
+                log.error("unable to write transaction {}", pending.getTransaction().getReferenceId(), exception);
+                deadLetter(pending);
+            }
+        }
+    }
+
+    /**
+     * Saves transactions in one database transaction. The IDs a rolled back attempt assigned are cleared first,
+     * so a retry inserts the transactions again instead of merging them.
+     */
+    private void write(List<Transaction> transactions) {
+
+        transactions.forEach(transaction -> transaction.setTransactionId(null));
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.saveAll(transactions));
+    }
+
+    private void acknowledge(PendingTransaction pending) {
+
+        pending.getResult().complete(pending.getTransaction());
+        reservations.release();
+    }
+
+    /**
+     * Appends a transaction that could not be written to the dead-letter file and acknowledges it, as its balance
+     * change already happened and the record is now durable. Only when the file cannot be written either is the
+     * caller told the transaction was not recorded.
+     */
+    private synchronized void deadLetter(PendingTransaction pending) {
+
+        try {
+            if (deadLetterFile.getParent() != null) {
+                Files.createDirectories(deadLetterFile.getParent());
+            }
+        } catch (IOException exception) {
+            log.error("unable to create the directory of {}", deadLetterFile, exception);
+        }
+        try (FileChannel channel = FileChannel.open(deadLetterFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap((objectMapper.writeValueAsString(pending.getTransaction()) + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+            deadLetters.increment();
+            log.error("dead-lettered transaction {} to {}", pending.getTransaction().getReferenceId(), deadLetterFile);
+            pending.getResult().complete(pending.getTransaction());
+        } catch (IOException exception) {
+            log.error("unable to dead-letter transaction {}", pending.getTransaction(), exception);
+            pending.getResult().completeExceptionally(
+                    new WriteBehindUnavailableException("The transaction could not be recorded"));
+        } finally {
+            reservations.release();
+        }
+    }
+
+    /**
+     * Writes the transactions dead-lettered by an earlier run and deletes the dead-letter file once they are committed.
+     * The file is kept when they cannot be written yet, to be tried again at the next start. Their transaction date
+     * is the time they are written, like any other insert.
+     */
+    private void replayDeadLetters() {
+
+        if (!Files.exists(deadLetterFile)) {
+            return;
+        }
+        try {
+            List<Transaction> transactions = new ArrayList<>();
+            for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    transactions.add(objectMapper.readValue(line, Transaction.class));
+                }
+            }
+            write(transactions);
+            Files.delete(deadLetterFile);
+            log.info("wrote {} dead-lettered transactions from {}", transactions.size(), deadLetterFile);
+        } catch (IOException | RuntimeException exception) {
+            log.error("unable to write the dead-lettered transactions of {}", deadLetterFile, exception);
+        }
+    }
+}
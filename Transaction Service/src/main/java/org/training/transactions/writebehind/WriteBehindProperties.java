@@ -0,0 +1,52 @@
+package org.training.transactions.writebehind;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.config.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Whether deposits and withdrawals are recorded through the write-behind queue.
+     */
+    private boolean enabled;
+
+    /**
+     * Capacity of the queue of transactions waiting to be written.
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * Maximum number of transactions written with one commit.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Maximum time the first transaction of a batch waits for more transactions before the batch is written.
+     */
+    private long flushIntervalMillis = 5;
+
+    /**
+     * Maximum time a request waits for room in the queue before it is turned away, before its balance is changed.
+     */
+    private long submitTimeoutMillis = 1000;
+
+    /**
+     * Number of times a failed batch is written again before its transactions are written one by one.
+     */
+    private int flushAttempts = 3;
+
+    /**
+     * Wait before the first retry of a failed batch, doubled before every further retry.
+     */
+    private long retryBackoffMillis = 100;
+
+    /**
+     * File the transactions that could not be written are appended to, as newline-delimited JSON.
+     * They are written again when the service starts.
+     */
+    private String deadLetterFile = "data/transaction-dead-letters.ndjson";
+}
@@ -0,0 +1,13 @@
+-- Schema as created by Hibernate before the migrations were introduced; existing databases are baselined at this version.
+
+create table transaction (
+    transaction_id bigint not null auto_increment,
+    account_id varchar(255),
+    amount decimal(38,2),
+    comments varchar(255),
+    reference_id varchar(255),
+    status enum ('COMPLETED','PENDING'),
+    transaction_date datetime(6),
+    transaction_type enum ('DEPOSIT','EXTERNAL_TRANSFER','INTERNAL_TRANSFER','WITHDRAWAL'),
+    primary key (transaction_id)
+) engine=InnoDB;
@@ -0,0 +1,7 @@
+-- Indexes backing the transaction lookups by account and by reference; a reference is shared by both legs of a transfer.
+
+create index idx_transaction_account_id
+    on transaction (account_id);
+
+create index idx_transaction_reference_id
+    on transaction (reference_id);
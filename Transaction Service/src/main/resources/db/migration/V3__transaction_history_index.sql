@@ -0,0 +1,7 @@
+-- Backs the keyset-paginated history of an account, newest first; it also covers the lookups by account alone,
+-- so the single column index is dropped.
+
+create index idx_transaction_account_date_id
+    on transaction (account_id, transaction_date, transaction_id);
+
+drop index idx_transaction_account_id on transaction;
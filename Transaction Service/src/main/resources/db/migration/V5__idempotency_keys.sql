@@ -0,0 +1,13 @@
+-- Idempotency keys of the transaction requests with the response they were answered with; the primary key makes
+-- a concurrent retry of a request fail to claim its key. Expired keys are purged by creation time.
+
+create table idempotency_key (
+    idempotency_key varchar(255) not null,
+    created_at datetime(6),
+    message varchar(255),
+    response_code varchar(255),
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+create index idx_idempotency_key_created_at
+    on idempotency_key (created_at);
@@ -0,0 +1,11 @@
+-- Scopes an idempotency key to the endpoint and the body of the request it was first used for, and leases the
+-- claim of a request in progress: a claim older than the lease, whose request never started changing a balance,
+-- can be taken over by a retry. Keys claimed before this migration have no scope and their lease starts at creation.
+
+alter table idempotency_key add column endpoint varchar(255);
+alter table idempotency_key add column request_hash varchar(64);
+alter table idempotency_key add column claim_token varchar(36);
+alter table idempotency_key add column claimed_at datetime(6);
+alter table idempotency_key add column side_effect_started bit not null default 0;
+
+update idempotency_key set claimed_at = created_at;
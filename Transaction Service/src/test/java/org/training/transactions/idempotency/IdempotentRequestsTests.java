@@ -0,0 +1,211 @@
+package org.training.transactions.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.training.transactions.exception.DuplicateRequestException;
+import org.training.transactions.exception.IdempotencyKeyMismatchException;
+import org.training.transactions.model.entity.IdempotencyKey;
+import org.training.transactions.model.response.Response;
+import org.training.transactions.repository.IdempotencyKeyRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotentRequestsTests {
+
+    private static final String KEY = "transfer-42";
+
+    private static final String ENDPOINT = "/transactions";
+
+    private static final Map<String, String> REQUEST = Map.of("accountId", "0600000001", "amount", "100");
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+
+    private final IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+
+    private final AtomicInteger processed = new AtomicInteger();
+
+    private IdempotentRequests idempotentRequests;
+
+    @BeforeEach
+    void setUp() {
+
+        when(idempotencyKeyRepository.markSideEffect(anyString(), anyString(), anyBoolean())).thenReturn(1);
+        idempotentRequests = new IdempotentRequests(idempotencyKeyRepository, idempotencyProperties,
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void answersARetryWithTheOriginalResponse() {
+
+        Response response = idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded"));
+        Response replayed = idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded again"));
+
+        assertEquals(1, processed.get());
+        assertEquals("recorded", response.getMessage());
+        assertEquals("recorded", replayed.getMessage());
+        verify(idempotencyKeyRepository, times(1)).claim(eq(KEY), eq(ENDPOINT), anyString(), anyString(), any());
+    }
+
+    @Test
+    void answersARetryOfAKeyAnsweredByAnotherInstance() {
+
+        IdempotencyKey answered = claimed(LocalDateTime.now(), false);
+        answered.setResponseCode("200");
+        answered.setMessage("recorded");
+        claimedBefore(answered);
+
+        Response replayed = idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded again"));
+
+        assertEquals(0, processed.get());
+        assertEquals("recorded", replayed.getMessage());
+        verify(idempotencyKeyRepository, never()).takeOver(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void refusesAKeyReusedForAnotherRequest() {
+
+        idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded"));
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotentRequests.execute(KEY, ENDPOINT,
+                Map.of("accountId", "0600000001", "amount", "200"), process("recorded again")));
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotentRequests.execute(KEY, "/transactions/internal",
+                REQUEST, process("recorded again")));
+        assertEquals(1, processed.get());
+    }
+
+    @Test
+    void takesOverAnExpiredClaimWhoseRequestChangedNothing() {
+
+        claimedBefore(claimed(LocalDateTime.now().minusMinutes(5), false));
+        when(idempotencyKeyRepository.takeOver(eq(KEY), anyString(), any(), any())).thenReturn(1);
+
+        Response response = idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded"));
+
+        assertEquals("recorded", response.getMessage());
+        assertEquals(1, processed.get());
+        verify(idempotencyKeyRepository).complete(eq(KEY), anyString(), eq("200"), eq("recorded"));
+    }
+
+    @Test
+    void refusesToTakeOverAClaimWhoseRequestStartedChangingABalance() {
+
+        claimedBefore(claimed(LocalDateTime.now().minusMinutes(5), true));
+
+        assertThrows(DuplicateRequestException.class, () -> idempotentRequests.execute(KEY, ENDPOINT, REQUEST,
+                process("recorded")));
+        assertEquals(0, processed.get());
+    }
+
+    @Test
+    void refusesARetryWhileTheClaimIsHeld() {
+
+        claimedBefore(claimed(LocalDateTime.now(), false));
+
+        assertThrows(DuplicateRequestException.class, () -> idempotentRequests.execute(KEY, ENDPOINT, REQUEST,
+                process("recorded")));
+        assertEquals(0, processed.get());
+    }
+
+    @Test
+    void releasesTheKeyOfARequestFailingBeforeChangingABalance() {
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute(KEY, ENDPOINT, REQUEST, sideEffects -> {
+            throw new IllegalStateException("Account service unavailable");
+        }));
+
+        verify(idempotencyKeyRepository).release(eq(KEY), anyString());
+        verify(idempotencyKeyRepository, never()).abandon(anyString(), anyString());
+    }
+
+    @Test
+    void keepsTheKeyOfARequestFailingAfterChangingABalance() {
+
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute(KEY, ENDPOINT, REQUEST, sideEffects -> {
+            sideEffects.starting();
+            throw new IllegalStateException("Transaction could not be recorded");
+        }));
+
+        verify(idempotencyKeyRepository).abandon(eq(KEY), anyString());
+        verify(idempotencyKeyRepository, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void expiresCachedResponsesWithTheRetentionOfTheKeys() {
+
+        IdempotencyKey answered = claimed(LocalDateTime.now().minusHours(idempotencyProperties.getRetentionHours() + 1), false);
+        answered.setResponseCode("200");
+        answered.setMessage("recorded");
+        claimedBefore(answered);
+
+        idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded again"));
+        idempotentRequests.execute(KEY, ENDPOINT, REQUEST, process("recorded again"));
+
+        verify(idempotencyKeyRepository, times(2)).findById(KEY);
+    }
+
+    private Function<SideEffects, Response> process(String message) {
+
+        return sideEffects -> {
+            sideEffects.starting();
+            processed.incrementAndGet();
+            return Response.builder().responseCode("200").message(message).build();
+        };
+    }
+
+    /**
+     * Makes the claim of the key fail, as it is already claimed by the given row.
+     */
+    private void claimedBefore(IdempotencyKey claimed) {
+
+        when(idempotencyKeyRepository.claim(eq(KEY), anyString(), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'"));
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.of(claimed));
+    }
+
+    /**
+     * Returns an unanswered claim of the key for the same request.
+     */
+    private static IdempotencyKey claimed(LocalDateTime claimedAt, boolean sideEffectStarted) {
+
+        return IdempotencyKey.builder()
+                .idempotencyKey(KEY)
+                .endpoint(ENDPOINT)
+                .requestHash(hash(REQUEST))
+                .claimToken("claim-of-another-instance")
+                .claimedAt(claimedAt)
+                .createdAt(claimedAt)
+                .sideEffectStarted(sideEffectStarted).build();
+    }
+
+    private static String hash(Object request) {
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(new ObjectMapper().writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.training.transactions.service.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.transactions.exception.InvalidLookupException;
+import org.training.transactions.external.AccountService;
+import org.training.transactions.external.SequenceService;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.dto.TransactionSearch;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.model.response.TransactionPage;
+import org.training.transactions.repository.TransactionRepository;
+import org.training.transactions.writebehind.TransactionWriteBehind;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionHistoryCursorTests {
+
+    private static final String ACCOUNT_ID = "0600000001";
+
+    private static final LocalDateTime LAST_DATE = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        transactionService = new TransactionServiceImpl(transactionRepository, mock(AccountService.class),
+                mock(SequenceService.class), mock(EntityManager.class), new ObjectMapper(), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(transactionService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(transactionService, "maxPageSize", 100);
+    }
+
+    @Test
+    void resumesAfterTheLastTransactionOfThePreviousPage() {
+
+        when(transactionRepository.findPageBefore(eq(ACCOUNT_ID), isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(transaction(12L, LAST_DATE.plusMinutes(1)), transaction(11L, LAST_DATE),
+                        transaction(10L, LAST_DATE)));
+
+        TransactionPage first = transactionService.getTransactionHistory(search(null));
+
+        assertEquals(2, first.getTransactions().size());
+        when(transactionRepository.findPageBefore(eq(ACCOUNT_ID), eq(LAST_DATE), eq(11L), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(transaction(10L, LAST_DATE)));
+
+        TransactionPage second = transactionService.getTransactionHistory(search(first.getNextCursor()));
+
+        assertEquals(1, second.getTransactions().size());
+        assertEquals("TXN-10", second.getTransactions().get(0).getReferenceId());
+        assertNull(second.getNextCursor());
+        verify(transactionRepository).findPageBefore(eq(ACCOUNT_ID), eq(LAST_DATE), eq(11L), isNull(), isNull(), isNull(), any(Pageable.class));
+    }
+
+    @Test
+    void startsFromTheNewestTransactionWithoutACursor() {
+
+        when(transactionRepository.findPageBefore(eq(ACCOUNT_ID), isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(transaction(1L, LAST_DATE)));
+
+        TransactionPage page = transactionService.getTransactionHistory(search(" "));
+
+        assertEquals(1, page.getTransactions().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void refusesTamperedCursors() {
+
+        List<String> cursors = List.of(
+                "not base64!",
+                encode("garbage"),
+                encode(LAST_DATE.toString()),
+                encode(LAST_DATE + "|"),
+                encode(LAST_DATE + "|eleven"),
+                encode("2024-13-01T10:15:30|11"),
+                encode(LAST_DATE + "|11|12"),
+                encode("|11"));
+
+        for (String cursor : cursors) {
+            InvalidLookupException exception = assertThrows(InvalidLookupException.class,
+                    () -> transactionService.getTransactionHistory(search(cursor)), cursor);
+            assertEquals("Invalid cursor", exception.getMessage());
+        }
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private static TransactionSearch search(String cursor) {
+        return TransactionSearch.builder().accountId(ACCOUNT_ID).cursor(cursor).build();
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Transaction transaction(Long transactionId, LocalDateTime transactionDate) {
+
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .referenceId("TXN-" + transactionId)
+                .accountId(ACCOUNT_ID)
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(BigDecimal.TEN)
+                .transactionDate(transactionDate)
+                .status(TransactionStatus.COMPLETED).build();
+    }
+}
@@ -0,0 +1,179 @@
+package org.training.transactions.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.training.transactions.exception.WriteBehindUnavailableException;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionWriteBehindTests {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final List<List<String>> writes = new ArrayList<>();
+
+    private final WriteBehindProperties writeBehindProperties = new WriteBehindProperties();
+
+    private TransactionWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+
+        writeBehindProperties.setQueueCapacity(4);
+        writeBehindProperties.setBatchSize(10);
+        writeBehindProperties.setFlushIntervalMillis(100);
+        writeBehindProperties.setSubmitTimeoutMillis(50);
+        writeBehindProperties.setFlushAttempts(2);
+        writeBehindProperties.setRetryBackoffMillis(1);
+        writeBehindProperties.setDeadLetterFile(directory.resolve("dead-letters.ndjson").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    void writesTheTransactionsOfAFailedBatchOneByOneAndKeepsFlushing() {
+
+        TransactionRepository transactionRepository = repository(2);
+        writeBehind = start(transactionRepository);
+
+        writeBehind.reserve();
+        CompletableFuture<Transaction> first = writeBehind.submit(transaction("ref-1"));
+        writeBehind.reserve();
+        CompletableFuture<Transaction> second = writeBehind.submit(transaction("ref-2"));
+        first.join();
+        second.join();
+        writeBehind.reserve();
+        writeBehind.save(transaction("ref-3"));
+
+        assertEquals(List.of(List.of("ref-1", "ref-2"), List.of("ref-1", "ref-2"), List.of("ref-1"), List.of("ref-2"),
+                List.of("ref-3")), writes);
+        assertFalse(Files.exists(deadLetterFile()));
+    }
+
+    @Test
+    void deadLettersATransactionThatCannotBeWrittenAndWritesItAtTheNextStart() throws Exception {
+
+        writeBehind = start(repository(Integer.MAX_VALUE));
+        writeBehind.reserve();
+
+        assertEquals("ref-1", writeBehind.save(transaction("ref-1")).getReferenceId());
+        List<String> lines = Files.readAllLines(deadLetterFile(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertEquals("ref-1", objectMapper.readValue(lines.get(0), Transaction.class).getReferenceId());
+        writeBehind.shutdown();
+        writes.clear();
+
+        writeBehind = start(repository(0));
+
+        assertEquals(List.of(List.of("ref-1")), writes);
+        assertFalse(Files.exists(deadLetterFile()));
+    }
+
+    @Test
+    void keepsTheDeadLetterFileWhenItCannotBeWrittenAtStart() throws Exception {
+
+        Files.writeString(deadLetterFile(), objectMapper.writeValueAsString(transaction("ref-1")) + "\n");
+
+        writeBehind = start(repository(Integer.MAX_VALUE));
+
+        assertTrue(Files.exists(deadLetterFile()));
+    }
+
+    @Test
+    void turnsRequestsAwayWhenTheQueueIsFull() throws Exception {
+
+        writeBehindProperties.setQueueCapacity(1);
+        CountDownLatch written = new CountDownLatch(1);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            written.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        writeBehind = start(transactionRepository);
+
+        writeBehind.reserve();
+        CompletableFuture<Transaction> queued = writeBehind.submit(transaction("ref-1"));
+
+        assertThrows(WriteBehindUnavailableException.class, writeBehind::reserve);
+        written.countDown();
+        queued.join();
+        writeBehind.reserve();
+        writeBehind.cancelReservation();
+        writeBehind.reserve();
+        writeBehind.cancelReservation();
+    }
+
+    private TransactionWriteBehind start(TransactionRepository transactionRepository) {
+
+        return new TransactionWriteBehind(transactionRepository, mock(PlatformTransactionManager.class),
+                writeBehindProperties, objectMapper, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Repository whose first writes fail, recording the reference IDs of every write.
+     */
+    private TransactionRepository repository(int failures) {
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            synchronized (writes) {
+                writes.add(transactions.stream().map(Transaction::getReferenceId).toList());
+                if (writes.size() <= failures) {
+                    throw new DataAccessResourceFailureException("Connection refused");
+                }
+            }
+            return transactions;
+        });
+        return transactionRepository;
+    }
+
+    private Path deadLetterFile() {
+        return Path.of(writeBehindProperties.getDeadLetterFile());
+    }
+
+    private static Transaction transaction(String referenceId) {
+
+        return Transaction.builder()
+                .referenceId(referenceId)
+                .accountId("0600000001")
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(BigDecimal.TEN)
+                .status(TransactionStatus.COMPLETED).build();
+    }
+}
@@ -0,0 +1,85 @@
+package org.training.user.service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fails the startup when an index the repository lookups rely on is missing once the migrations ran,
+ * instead of letting those lookups silently fall back to full table scans.
+ */
+@Slf4j
+@Component
+public class IndexVerifier implements Callback {
+
+    private static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "user", List.of("uk_user_auth_id"));
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.AFTER_MIGRATE;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    /**
+     * Checks every expected index against the index metadata of the database.
+     *
+     * @throws FlywayException if an expected index is missing or the metadata cannot be read
+     */
+    @Override
+    public void handle(Event event, Context context) {
+
+        List<String> missing = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<String>> table : EXPECTED_INDEXES.entrySet()) {
+                Set<String> existing = indexesOf(context.getConnection(), table.getKey());
+                table.getValue().stream()
+                        .filter(index -> !existing.contains(index))
+                        .forEach(index -> missing.add(table.getKey() + "." + index));
+            }
+        } catch (SQLException exception) {
+            throw new FlywayException("Unable to read the indexes of the database", exception);
+        }
+        if (!missing.isEmpty()) {
+            log.error("missing database indexes {}", missing);
+            throw new FlywayException("Missing database indexes " + missing);
+        }
+        log.info("verified the database indexes of {} tables", EXPECTED_INDEXES.size());
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "index verification";
+    }
+
+    private static Set<String> indexesOf(Connection connection, String table) throws SQLException {
+
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+            while (resultSet.next()) {
+                String index = resultSet.getString("INDEX_NAME");
+                if (index != null) {
+                    indexes.add(index.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -4,9 +4,13 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.cloud.openfeign.FeignClientProperties;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.user.service.model.external.Account;
 
+import java.util.List;
+
 @FeignClient(name = "account-service", configuration = FeignClientProperties.FeignClientConfiguration.class)
 public interface AccountService {
 
@@ -18,4 +22,13 @@ public interface AccountService {
      */
     @GetMapping("/accounts")
     ResponseEntity<Account> readByAccountNumber(@RequestParam String accountNumber);
+
+    /**
+     * Retrieves several accounts by their account numbers in one request.
+     *
+     * @param  accountNumbers the account numbers to search for
+     * @return                the ResponseEntity containing the accounts found
+     */
+    @PostMapping("/accounts/lookup")
+    ResponseEntity<List<Account>> readByAccountNumbers(@RequestBody List<String> accountNumbers);
 }
@@ -14,12 +14,15 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = @Index(name = "uk_user_auth_id", columnList = "authId", unique = true))
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
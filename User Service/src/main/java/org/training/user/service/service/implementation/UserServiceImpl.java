@@ -13,6 +13,7 @@ import org.training.user.service.exception.EmptyFields;
 import org.training.user.service.exception.ResourceConflictException;
 import org.training.user.service.exception.ResourceNotFound;
 import org.training.user.service.external.AccountService;
+import org.training.user.service.external.SequenceService;
 import org.training.user.service.model.Status;
 import org.training.user.service.model.dto.CreateUser;
 import org.training.user.service.model.dto.UserDto;
@@ -41,9 +42,12 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final KeycloakService keycloakService;
     private final AccountService accountService;
+    private final SequenceService sequenceService;
 
     private UserMapper userMapper = new UserMapper();
 
+    private static final String IDENTIFICATION_SEQUENCE = "customer-identification";
+
     @Value("${spring.application.success}")
     private String responseCodeSuccess;
 
@@ -94,7 +98,7 @@ public class UserServiceImpl implements UserService {
                     .contactNo(userDto.getContactNumber())
                     .status(Status.PENDING).userProfile(userProfile)
                     .authId(representations.get(0).getId())
-                    .identificationNumber(UUID.randomUUID().toString()).build();
+                    .identificationNumber(String.valueOf(sequenceService.generateValue(IDENTIFICATION_SEQUENCE).getValue())).build();
 
             userRepository.save(user);
             return Response.builder()
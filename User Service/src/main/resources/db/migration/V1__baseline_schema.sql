@@ -0,0 +1,33 @@
+-- Schema as created by Hibernate before the migrations were introduced; existing databases are baselined at this version.
+
+create table user (
+    user_id bigint not null auto_increment,
+    auth_id varchar(255),
+    contact_no varchar(255),
+    creation_on date,
+    email_id varchar(255),
+    identification_number varchar(255),
+    status enum ('APPROVED','DISABLED','PENDING','REJECTED'),
+    user_profile_id bigint,
+    primary key (user_id)
+) engine=InnoDB;
+
+create table user_profile (
+    user_profile_id bigint not null auto_increment,
+    address varchar(255),
+    first_name varchar(255),
+    gender varchar(255),
+    last_name varchar(255),
+    martial_status varchar(255),
+    nationality varchar(255),
+    occupation varchar(255),
+    primary key (user_profile_id)
+) engine=InnoDB;
+
+alter table user
+    add constraint UK2ek1mbe9ojg3q7p83vusnrj15 unique (user_profile_id);
+
+alter table user
+    add constraint FKjjes1f6tjhqns02054ou51m00
+    foreign key (user_profile_id)
+    references user_profile (user_profile_id);
@@ -0,0 +1,4 @@
+-- Index backing the user lookup by the identifier of the user in the identity provider.
+
+create unique index uk_user_auth_id
+    on user (auth_id);